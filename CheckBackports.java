@@ -9,34 +9,79 @@
 //JAVA_OPTIONS -Dquarkus.banner.enabled=false
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import jakarta.inject.Inject;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 @Command(name = "CheckBackports",
-        description = "Check that all commits from pull requests in a backport project column have been cherry-picked")
+        description = "Check that all commits from pull requests in backport project columns have been cherry-picked")
 public class CheckBackports implements Runnable {
 
     private static final String ORG = "quarkusio";
     private static final String REPO = "quarkus";
-    private static final String GRAPHQL_URL = "https://api.github.com/graphql";
+    private static final String STATUS_FIELD = "Status";
+    private static final int PULL_REQUESTS_PER_QUERY = 25;
+    private static final int MAX_CONCURRENT_QUERIES = 4;
+
+    private static final String COMMIT_PAGE_FRAGMENT = """
+            fragment commitPage on PullRequestCommitConnection {
+              nodes {
+                commit { oid message }
+              }
+              pageInfo { hasNextPage endCursor }
+            }""";
+
+    private static final String INDEX_DIRECTORY = "check-backports";
+    private static final String INDEX_HEADER = "CheckBackports index v2";
+    private static final int PATCH_ID_CHUNK_SIZE = 500;
+    private static final Pattern VERSION = Pattern.compile("\\d+\\.\\d+\\.\\d+");
+    private static final Pattern MAJOR_MINOR = Pattern.compile("\\d+\\.\\d+");
+    private static final Pattern CHERRY_PICKED_FROM = Pattern.compile("\\(cherry picked from commit ([0-9a-f]{40})\\)");
 
     private static final HttpClient HTTP = HttpClient.newHttpClient();
 
@@ -46,11 +91,44 @@ public class CheckBackports implements Runnable {
     @Parameters(index = "0", description = "Path to the git tree to check")
     String treePath;
 
-    @Parameters(index = "1", description = "The version to check, e.g. 3.33.2")
-    String version;
+    @Parameters(index = "1..*", arity = "0..*", paramLabel = "<version> [<branch>]",
+            description = "The versions to check, e.g. 3.33.2, each optionally followed by the branch to check against "
+                    + "(default: the current local branch when checking a single version, the X.Y branch otherwise)")
+    List<String> versionsAndBranches;
+
+    @Option(names = "--project", paramLabel = "<X.Y>[:<branch>]",
+            description = "Check every column of the 'Backports for X.Y' project against the given branch (default: X.Y)")
+    List<String> projects;
+
+    @Option(names = "--json", paramLabel = "<file>", description = "Also write the report as JSON to this file")
+    Path jsonReport;
+
+    @Option(names = "--junit", paramLabel = "<file>", description = "Also write the report as JUnit XML to this file")
+    Path junitReport;
+
+    @Option(names = "--no-patch-ids",
+            description = "Only detect the commits cherry-picked with -x, skipping the patch-id comparison")
+    boolean noPatchIds;
+
+    @Option(names = "--graphql-url", paramLabel = "<url>", defaultValue = "https://api.github.com/graphql",
+            description = "The GitHub GraphQL endpoint (default: https://api.github.com/graphql)")
+    String graphqlUrl;
+
+    @Option(names = "--items-cache-ttl", paramLabel = "<minutes>", defaultValue = "0",
+            description = "Reuse the project items fetched by a previous run if they are more recent than this "
+                    + "(default: 0, always fetch)")
+    int itemsCacheTtl;
+
+    @Option(names = "--watch", description = "Keep running and re-check the columns when the branches or the columns change")
+    boolean watch;
 
-    @Parameters(index = "2", description = "The branch to check against (default: current local branch)", arity = "0..1")
-    Optional<String> branch;
+    @Option(names = "--poll-interval", paramLabel = "<seconds>", defaultValue = "5",
+            description = "How often the branches are polled in watch mode (default: 5)")
+    int pollInterval;
+
+    @Option(names = "--items-poll-interval", paramLabel = "<seconds>", defaultValue = "120",
+            description = "How often the project items are fetched again in watch mode (default: 120)")
+    int itemsPollInterval;
 
     private String token;
 
@@ -70,90 +148,467 @@ public class CheckBackports implements Runnable {
             throw new IllegalArgumentException("Not a git repository: " + treeDir);
         }
 
-        String[] parts = version.split("\\.");
-        if (parts.length != 3) {
-            throw new IllegalArgumentException("Version must be in X.Y.Z format, got: " + version);
+        List<Target> targets = parseTargets(treeDir);
+        List<ProjectTarget> projectTargets = parseProjectTargets();
+        if (targets.isEmpty() && projectTargets.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to check, give at least a version or a project");
         }
-        String majorMinor = parts[0] + "." + parts[1];
-        String projectName = "Backports for " + majorMinor;
 
-        String resolvedBranch = branch.orElseGet(() -> {
-            try {
-                return resolveCurrentBranch(treeDir);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to resolve current branch in " + treeDir, e);
-            }
-        });
-
-        fetchIfRemote(resolvedBranch, treeDir);
+        Set<String> branches = new LinkedHashSet<>();
+        targets.forEach(t -> branches.add(t.branch));
+        projectTargets.forEach(t -> branches.add(t.branch));
+        for (String branch : branches) {
+            fetchIfRemote(branch, treeDir);
+        }
 
         token = resolveToken();
 
-        System.out.println("Checking backport cherry-picks for " + version);
-        System.out.println("  Project: " + projectName);
+        System.out.println("Checking backport cherry-picks");
         System.out.println("  Tree:    " + treeDir);
-        System.out.println("  Branch:  " + resolvedBranch);
+        for (Target target : targets) {
+            System.out.println("  " + target.version + ": " + projectName(target.majorMinor) + " -> " + target.branch);
+        }
+        for (ProjectTarget target : projectTargets) {
+            System.out.println("  " + target.majorMinor + ".*: " + projectName(target.majorMinor) + " -> " + target.branch);
+        }
         System.out.println();
 
-        // Step 1: find the project
-        String projectId = findProject(projectName);
-        if (projectId == null) {
-            throw new IllegalStateException("Could not find project '" + projectName + "' in org " + ORG);
+        // Step 1: find the projects
+        Map<String, String> projectIds = new LinkedHashMap<>();
+        for (String majorMinor : Stream.concat(targets.stream().map(Target::majorMinor),
+                projectTargets.stream().map(ProjectTarget::majorMinor)).distinct().toList()) {
+            String projectId = findProject(projectName(majorMinor));
+            if (projectId == null) {
+                throw new IllegalStateException("Could not find project '" + projectName(majorMinor) + "' in org " + ORG);
+            }
+            projectIds.put(majorMinor, projectId);
         }
 
-        // Step 3: find pull requests in the target column
-        List<PullRequest> pullRequests = findPullRequestsInColumn(projectId, version);
-        if (pullRequests.isEmpty()) {
-            System.out.println("No pull requests found in column '" + version + "'.");
-            return;
+        // Step 2: check every column of the whole projects
+        List<Target> allTargets = new ArrayList<>(targets);
+        for (ProjectTarget projectTarget : projectTargets) {
+            for (String column : findVersionColumns(projectIds.get(projectTarget.majorMinor), projectTarget.majorMinor)) {
+                Target target = new Target(column, projectTarget.majorMinor, projectTarget.branch);
+                if (allTargets.stream().noneMatch(t -> t.version.equals(column))) {
+                    allTargets.add(target);
+                }
+            }
+        }
+
+        // Step 3: find pull requests in the target columns, fetching the items of each project once
+        Map<Target, List<PullRequest>> pullRequests = findPullRequests(allTargets, projectIds, treeDir, true);
+        for (Target target : allTargets) {
+            int count = pullRequests.get(target).size();
+            if (count == 0) {
+                System.out.println("No pull requests found in column '" + target.version + "'.");
+            } else {
+                System.out.println("Found " + count + " pull request" + plural(count) + " in column '" + target.version + "'.");
+            }
         }
-        System.out.println("Found " + pullRequests.size() + " pull request" + plural(pullRequests.size()) + " in column '" + version + "'.");
         System.out.println();
 
         // Step 4: filter out pull requests targeting the branch directly
-        List<PullRequest> toCheck = pullRequests.stream()
-                .filter(pr -> !pr.baseRefName.equals(majorMinor))
-                .toList();
+        Map<Target, List<PullRequest>> toCheck = filterPullRequestsToCheck(pullRequests);
 
-        // Step 5: for each remaining pull request, check commits
-        List<PullRequestReport> reports = new ArrayList<>();
-        int checked = 0;
-        for (PullRequest pr : toCheck) {
-            checked++;
-            System.out.print("\rChecking pull requests... [" + checked + "/" + toCheck.size() + "]");
-
-            List<CommitInfo> commits = getPullRequestCommits(pr.number);
-            List<CommitInfo> missing = new ArrayList<>();
-            for (CommitInfo c : commits) {
-                if (!isCherryPicked(c.sha, resolvedBranch, treeDir)) {
-                    missing.add(c);
-                }
-            }
-            if (!missing.isEmpty()) {
-                reports.add(new PullRequestReport(pr, missing));
+        // Step 5: index the cherry-picks of each branch once, only scanning the commits added since the previous run
+        Map<String, BranchIndex> indexes = new LinkedHashMap<>();
+        for (Target target : allTargets) {
+            if (!indexes.containsKey(target.branch)) {
+                indexes.put(target.branch, loadBranchIndex(target.branch, treeDir));
             }
         }
+
+        // Step 6: fetch the commits of all the remaining pull requests at once
+        Map<Integer, List<CommitInfo>> commitsByPullRequest = new HashMap<>(
+                fetchPullRequestCommits(uniquePullRequests(toCheck, Set.of())));
         System.out.println();
         System.out.println();
 
-        // Step 6: report
-        if (reports.isEmpty()) {
-            System.out.println("All commits from all pull requests have been cherry-picked to " + resolvedBranch + ".");
-        } else {
-            System.out.println("=== Missing cherry-picks for " + version + " ===");
+        // Step 7: check the columns
+        List<ColumnReport> reports = checkColumns(allTargets, indexes, toCheck, commitsByPullRequest, treeDir);
+
+        // Step 8: report
+        for (ColumnReport report : reports) {
+            printReport(report);
+        }
+        writeReports(reports);
+
+        if (watch) {
+            watch(allTargets, projectIds, indexes, toCheck, commitsByPullRequest, reports, treeDir);
+        }
+    }
+
+    /**
+     * Keeps the project items, the pull request commits and the branch indexes in memory and re-checks the columns when a
+     * branch moves or when the items of the columns change, printing what changed.
+     * <p>
+     * The local branches are polled often as it is cheap, the project items less often as they are fetched from GitHub.
+     */
+    private void watch(List<Target> targets, Map<String, String> projectIds, Map<String, BranchIndex> indexes,
+            Map<Target, List<PullRequest>> toCheck, Map<Integer, List<CommitInfo>> commitsByPullRequest,
+            List<ColumnReport> reports, Path treeDir) throws Exception {
+        System.out.println("Watching " + String.join(", ", indexes.keySet()) + " for changes, press Ctrl+C to stop...");
+        System.out.println();
+
+        Instant nextItemsRefresh = Instant.now().plusSeconds(itemsPollInterval);
+        // the columns to re-check, kept until the check succeeds as the branch indexes are already up to date
+        Set<Target> pendingTargets = new LinkedHashSet<>();
+        while (true) {
+            Thread.sleep(pollInterval * 1000L);
+            try {
+                Set<String> movedBranches = new LinkedHashSet<>();
+                for (Map.Entry<String, BranchIndex> index : indexes.entrySet()) {
+                    String previousTip = index.getValue().tip;
+                    if (updateBranchIndex(index.getValue(), index.getKey(), treeDir)) {
+                        movedBranches.add(index.getKey());
+                        System.out.println("[" + LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + "] " + index.getKey()
+                                + " moved from " + previousTip.substring(0, 12) + " to "
+                                + index.getValue().tip.substring(0, 12));
+                    }
+                }
+
+                targets.stream().filter(t -> movedBranches.contains(t.branch)).forEach(pendingTargets::add);
+                if (!Instant.now().isBefore(nextItemsRefresh)) {
+                    nextItemsRefresh = Instant.now().plusSeconds(itemsPollInterval);
+                    // a GitHub failure must not prevent the moved branches from being re-checked
+                    try {
+                        Map<Target, List<PullRequest>> refreshed = filterPullRequestsToCheck(
+                                findPullRequests(targets, projectIds, treeDir, false));
+                        List<PullRequest> newPullRequests = uniquePullRequests(refreshed, commitsByPullRequest.keySet());
+                        if (!newPullRequests.isEmpty()) {
+                            commitsByPullRequest.putAll(fetchPullRequestCommits(newPullRequests));
+                            System.out.println();
+                        }
+                        for (Target target : targets) {
+                            if (!toCheck.get(target).equals(refreshed.get(target))) {
+                                pendingTargets.add(target);
+                            }
+                        }
+                        toCheck.putAll(refreshed);
+                    } catch (Exception e) {
+                        System.err.println("Error while refreshing the project items: " + e.getMessage());
+                    }
+                }
+                if (pendingTargets.isEmpty()) {
+                    continue;
+                }
+
+                Map<String, BranchIndex> changedIndexes = new LinkedHashMap<>();
+                pendingTargets.forEach(t -> changedIndexes.put(t.branch, indexes.get(t.branch)));
+                // a branch checks all its columns at once, so we re-check them all
+                List<Target> recheckedTargets = targets.stream().filter(t -> changedIndexes.containsKey(t.branch)).toList();
+                List<ColumnReport> changedReports = checkColumns(recheckedTargets, changedIndexes, toCheck,
+                        commitsByPullRequest, treeDir);
+
+                List<ColumnReport> updatedReports = new ArrayList<>(reports);
+                for (ColumnReport changedReport : changedReports) {
+                    int position = targets.indexOf(changedReport.target);
+                    printDelta(updatedReports.get(position), changedReport);
+                    updatedReports.set(position, changedReport);
+                }
+                reports = updatedReports;
+                writeReports(reports);
+                pendingTargets.clear();
+            } catch (Exception e) {
+                // GitHub or the local repository might be temporarily unavailable, we will try again on the next poll
+                System.err.println("Error while watching: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Finds the pull requests in the target columns, fetching the items of each project once.
+     */
+    private Map<Target, List<PullRequest>> findPullRequests(List<Target> targets, Map<String, String> projectIds,
+            Path treeDir, boolean allowCached) throws Exception {
+        Map<Target, List<PullRequest>> pullRequests = new LinkedHashMap<>();
+        for (Map.Entry<String, String> project : projectIds.entrySet()) {
+            List<Target> projectColumns = targets.stream().filter(t -> t.majorMinor.equals(project.getKey())).toList();
+            Map<String, List<PullRequest>> columns = findPullRequestsInColumns(project.getValue(),
+                    projectColumns.stream().map(Target::version).toList(), indexDirectory(treeDir), allowCached);
+            projectColumns.forEach(t -> pullRequests.put(t, columns.get(t.version)));
+        }
+        return pullRequests;
+    }
+
+    /**
+     * Filters out the pull requests targeting the branch directly.
+     */
+    private static Map<Target, List<PullRequest>> filterPullRequestsToCheck(Map<Target, List<PullRequest>> pullRequests) {
+        Map<Target, List<PullRequest>> toCheck = new LinkedHashMap<>();
+        pullRequests.forEach((target, prs) -> toCheck.put(target,
+                prs.stream().filter(pr -> !pr.baseRefName.equals(target.majorMinor)).toList()));
+        return toCheck;
+    }
+
+    /**
+     * @return the pull requests of all the columns, without duplicates and without the known ones
+     */
+    private static List<PullRequest> uniquePullRequests(Map<Target, List<PullRequest>> pullRequests, Set<Integer> known) {
+        Map<Integer, PullRequest> unique = new LinkedHashMap<>();
+        pullRequests.values().forEach(prs -> prs.stream()
+                .filter(pr -> !known.contains(pr.number))
+                .forEach(pr -> unique.putIfAbsent(pr.number, pr)));
+        return new ArrayList<>(unique.values());
+    }
+
+    /**
+     * Checks the columns of the different branches concurrently, the columns of a same branch are checked together as they
+     * share the index.
+     *
+     * @return the reports, in the order of the targets
+     */
+    private List<ColumnReport> checkColumns(List<Target> targets, Map<String, BranchIndex> indexes,
+            Map<Target, List<PullRequest>> toCheck, Map<Integer, List<CommitInfo>> commitsByPullRequest, Path treeDir)
+            throws Exception {
+        Map<Target, ColumnReport> reportsByTarget = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<?>> checks = new ArrayList<>();
+            for (Map.Entry<String, BranchIndex> index : indexes.entrySet()) {
+                List<Target> branchTargets = targets.stream().filter(t -> t.branch.equals(index.getKey())).toList();
+                checks.add(executor.submit(() -> {
+                    checkBranch(index.getValue(), branchTargets, toCheck, commitsByPullRequest, treeDir)
+                            .forEach(report -> reportsByTarget.put(report.target, report));
+                    return null;
+                }));
+            }
+            for (Future<?> check : checks) {
+                await(check);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return targets.stream().map(reportsByTarget::get).toList();
+    }
+
+    private void writeReports(List<ColumnReport> reports) throws IOException {
+        if (jsonReport != null) {
+            writeJsonReport(reports, jsonReport);
+        }
+        if (junitReport != null) {
+            writeJUnitReport(reports, junitReport);
+        }
+    }
+
+    /**
+     * Parses the versions, each of them optionally followed by a branch.
+     */
+    private List<Target> parseTargets(Path treeDir) throws Exception {
+        List<String> args = versionsAndBranches != null ? versionsAndBranches : List.of();
+        List<Target> targets = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            String version = args.get(i);
+            if (!VERSION.matcher(version).matches()) {
+                throw new IllegalArgumentException("Version must be in X.Y.Z format, got: " + version);
+            }
+            String branch = i + 1 < args.size() && !VERSION.matcher(args.get(i + 1)).matches() ? args.get(++i) : null;
+            targets.add(new Target(version, version.substring(0, version.lastIndexOf('.')), branch));
+        }
+
+        boolean single = targets.size() == 1 && (projects == null || projects.isEmpty());
+        List<Target> resolved = new ArrayList<>();
+        for (Target target : targets) {
+            if (target.branch != null) {
+                resolved.add(target);
+            } else if (single) {
+                resolved.add(new Target(target.version, target.majorMinor, resolveCurrentBranch(treeDir)));
+            } else {
+                resolved.add(new Target(target.version, target.majorMinor, target.majorMinor));
+            }
+        }
+        return resolved;
+    }
+
+    private List<ProjectTarget> parseProjectTargets() {
+        List<ProjectTarget> projectTargets = new ArrayList<>();
+        for (String project : projects != null ? projects : List.<String> of()) {
+            int separator = project.indexOf(':');
+            String majorMinor = separator > 0 ? project.substring(0, separator) : project;
+            if (!MAJOR_MINOR.matcher(majorMinor).matches()) {
+                throw new IllegalArgumentException("Project must be in X.Y format, got: " + majorMinor);
+            }
+            projectTargets.add(new ProjectTarget(majorMinor, separator > 0 ? project.substring(separator + 1) : majorMinor));
+        }
+        return projectTargets;
+    }
+
+    /**
+     * Checks the columns against the branch. The patch-ids are computed once for all the commits of the columns.
+     */
+    private List<ColumnReport> checkBranch(BranchIndex index, List<Target> targets, Map<Target, List<PullRequest>> toCheck,
+            Map<Integer, List<CommitInfo>> commitsByPullRequest, Path treeDir) throws Exception {
+        // match the commits cherry-picked without -x on their patch-id
+        List<String> withoutTrailer = targets.stream()
+                .flatMap(t -> toCheck.get(t).stream())
+                .flatMap(pr -> commitsByPullRequest.get(pr.number).stream())
+                .map(CommitInfo::sha)
+                .filter(sha -> !index.cherryPicked.contains(sha))
+                .distinct()
+                .toList();
+        Set<String> samePatch = withoutTrailer.isEmpty() || noPatchIds
+                ? Set.of()
+                : findCommitsWithSamePatch(withoutTrailer, index, treeDir);
+
+        // for each remaining pull request, check commits
+        List<ColumnReport> reports = new ArrayList<>();
+        for (Target target : targets) {
+            List<PullRequestReport> missingPullRequests = new ArrayList<>();
+            for (PullRequest pr : toCheck.get(target)) {
+                List<CommitInfo> missing = new ArrayList<>();
+                for (CommitInfo c : commitsByPullRequest.get(pr.number)) {
+                    if (!index.cherryPicked.contains(c.sha) && !samePatch.contains(c.sha)) {
+                        missing.add(c);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    missingPullRequests.add(new PullRequestReport(pr, missing));
+                }
+            }
+            reports.add(new ColumnReport(target, toCheck.get(target), missingPullRequests));
+        }
+        return reports;
+    }
+
+    private static void printReport(ColumnReport report) {
+        if (report.missingPullRequests.isEmpty()) {
+            System.out.println("All commits from all pull requests in column '" + report.target.version
+                    + "' have been cherry-picked to " + report.target.branch + ".");
             System.out.println();
-            System.out.println(reports.size() + " pull request" + plural(reports.size()) + " with missing cherry-picks");
+            return;
+        }
+
+        System.out.println("=== Missing cherry-picks for " + report.target.version + " ===");
+        System.out.println();
+        System.out.println(report.missingPullRequests.size() + " pull request" + plural(report.missingPullRequests.size())
+                + " with missing cherry-picks");
+        System.out.println();
+        for (PullRequestReport missing : report.missingPullRequests) {
+            PullRequest pr = missing.pullRequest;
+            System.out.println("#" + pr.number + " · " + pr.title);
+            System.out.println("  -> " + pr.url);
+            for (CommitInfo c : missing.missingCommits) {
+                System.out.println("  " + c.sha.substring(0, 12) + " " + c.firstLine);
+            }
             System.out.println();
-            for (PullRequestReport report : reports) {
-                PullRequest pr = report.pullRequest;
-                System.out.println("#" + pr.number + " · " + pr.title);
-                System.out.println("  -> " + pr.url);
-                for (CommitInfo c : report.missingCommits) {
-                    System.out.println("  " + c.sha.substring(0, 12) + " " + c.firstLine);
+        }
+    }
+
+    /**
+     * Prints the pull requests of the column whose status changed since the previous check.
+     */
+    private static void printDelta(ColumnReport previous, ColumnReport current) {
+        String prefix = "  " + current.target.version + ": ";
+        Map<Integer, List<CommitInfo>> previousMissing = missingCommitsByPullRequest(previous);
+        Map<Integer, List<CommitInfo>> currentMissing = missingCommitsByPullRequest(current);
+        Set<Integer> previousNumbers = previous.checkedPullRequests.stream().map(PullRequest::number)
+                .collect(Collectors.toSet());
+        Set<Integer> currentNumbers = current.checkedPullRequests.stream().map(PullRequest::number)
+                .collect(Collectors.toSet());
+
+        List<String> changes = new ArrayList<>();
+        for (PullRequest pr : previous.checkedPullRequests) {
+            if (!currentNumbers.contains(pr.number)) {
+                changes.add("#" + pr.number + " · " + pr.title + " left the column");
+            }
+        }
+        for (PullRequest pr : current.checkedPullRequests) {
+            List<CommitInfo> missing = currentMissing.getOrDefault(pr.number, List.of());
+            if (!previousNumbers.contains(pr.number)) {
+                changes.add("#" + pr.number + " · " + pr.title + " joined the column"
+                        + (missing.isEmpty() ? "" : ", " + missing.size() + " missing cherry-pick" + plural(missing.size())));
+            } else if (!missing.equals(previousMissing.getOrDefault(pr.number, List.of()))) {
+                changes.add("#" + pr.number + " · " + pr.title
+                        + (missing.isEmpty() ? " is now fully cherry-picked"
+                                : " has " + missing.size() + " missing cherry-pick" + plural(missing.size())));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        changes.forEach(change -> System.out.println(prefix + change));
+        System.out.println(prefix + (current.missingPullRequests.isEmpty() ? "all cherry-picked to " + current.target.branch
+                : current.missingPullRequests.size() + " pull request" + plural(current.missingPullRequests.size())
+                        + " with missing cherry-picks"));
+    }
+
+    private static Map<Integer, List<CommitInfo>> missingCommitsByPullRequest(ColumnReport report) {
+        Map<Integer, List<CommitInfo>> missing = new HashMap<>();
+        report.missingPullRequests.forEach(r -> missing.put(r.pullRequest.number, r.missingCommits));
+        return missing;
+    }
+
+    private void writeJsonReport(List<ColumnReport> reports, Path file) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode columns = root.putArray("columns");
+        for (ColumnReport report : reports) {
+            ObjectNode column = columns.addObject();
+            column.put("version", report.target.version);
+            column.put("project", projectName(report.target.majorMinor));
+            column.put("branch", report.target.branch);
+            column.put("checkedPullRequests", report.checkedPullRequests.size());
+            ArrayNode missingPullRequests = column.putArray("missingPullRequests");
+            for (PullRequestReport missing : report.missingPullRequests) {
+                ObjectNode pullRequest = missingPullRequests.addObject();
+                pullRequest.put("number", missing.pullRequest.number);
+                pullRequest.put("title", missing.pullRequest.title);
+                pullRequest.put("url", missing.pullRequest.url);
+                ArrayNode commits = pullRequest.putArray("missingCommits");
+                for (CommitInfo c : missing.missingCommits) {
+                    commits.addObject().put("sha", c.sha).put("title", c.firstLine);
                 }
-                System.out.println();
             }
         }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    /**
+     * Writes a test suite per column and a test case per pull request, failing if commits are missing.
+     */
+    private static void writeJUnitReport(List<ColumnReport> reports, Path file) throws IOException {
+        int tests = reports.stream().mapToInt(r -> r.checkedPullRequests.size()).sum();
+        int failures = reports.stream().mapToInt(r -> r.missingPullRequests.size()).sum();
+
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<testsuites name=\"CheckBackports\" tests=\"").append(tests)
+                .append("\" failures=\"").append(failures).append("\">\n");
+        for (ColumnReport report : reports) {
+            xml.append("  <testsuite name=\"").append(xml(report.target.version))
+                    .append("\" tests=\"").append(report.checkedPullRequests.size())
+                    .append("\" failures=\"").append(report.missingPullRequests.size()).append("\">\n");
+            for (PullRequest pr : report.checkedPullRequests) {
+                xml.append("    <testcase classname=\"").append(xml(projectName(report.target.majorMinor)))
+                        .append("\" name=\"").append(xml("#" + pr.number + " " + pr.title)).append('"');
+                Optional<PullRequestReport> missing = report.missingPullRequests.stream()
+                        .filter(r -> r.pullRequest.number == pr.number)
+                        .findFirst();
+                if (missing.isEmpty()) {
+                    xml.append("/>\n");
+                    continue;
+                }
+                xml.append(">\n      <failure message=\"")
+                        .append(xml(missing.get().missingCommits.size() + " commit"
+                                + plural(missing.get().missingCommits.size()) + " not cherry-picked to "
+                                + report.target.branch))
+                        .append("\">");
+                for (CommitInfo c : missing.get().missingCommits) {
+                    xml.append(xml(c.sha + " " + c.firstLine)).append('\n');
+                }
+                xml.append("</failure>\n    </testcase>\n");
+            }
+            xml.append("  </testsuite>\n");
+        }
+        xml.append("</testsuites>\n");
+        Files.writeString(file, xml);
+    }
+
+    private static String xml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String projectName(String majorMinor) {
+        return "Backports for " + majorMinor;
     }
 
     private void fetchIfRemote(String branch, Path dir) throws Exception {
@@ -242,21 +697,70 @@ public class CheckBackports implements Runnable {
         return null;
     }
 
-    private List<PullRequest> findPullRequestsInColumn(String projectId, String columnName) throws Exception {
-        List<PullRequest> result = new ArrayList<>();
+    /**
+     * @return the columns of the project named after a version of the X.Y branch
+     */
+    private List<String> findVersionColumns(String projectId, String majorMinor) throws Exception {
+        String query = """
+                query($projectId: ID!, $statusField: String!) {
+                  node(id: $projectId) {
+                    ... on ProjectV2 {
+                      field(name: $statusField) {
+                        ... on ProjectV2SingleSelectField {
+                          options { name }
+                        }
+                      }
+                    }
+                  }
+                }""";
+
+        JsonNode response = graphql(query, Map.of("projectId", projectId, "statusField", STATUS_FIELD));
+        List<String> columns = new ArrayList<>();
+        for (JsonNode option : response.at("/data/node/field/options")) {
+            String name = option.get("name").asText();
+            if (VERSION.matcher(name).matches() && name.startsWith(majorMinor + ".")) {
+                columns.add(name);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Finds the pull requests in the columns, the items are filtered by status on the server so that we only download the
+     * items of the columns and not the whole history of the project.
+     * <p>
+     * The items fetched by a previous run are reused if they are more recent than the configured TTL and if allowed.
+     *
+     * @return the pull requests by column
+     */
+    private Map<String, List<PullRequest>> findPullRequestsInColumns(String projectId, List<String> columnNames,
+            Path cacheDirectory, boolean allowCached) throws Exception {
+        Path cacheFile = cacheDirectory.resolve("items-" + projectId + "-"
+                + columnNames.stream().sorted().collect(Collectors.joining(",")) + ".json");
+        if (allowCached && itemsCacheTtl > 0 && Files.isRegularFile(cacheFile)
+                && Files.getLastModifiedTime(cacheFile).toInstant()
+                        .isAfter(Instant.now().minus(Duration.ofMinutes(itemsCacheTtl)))) {
+            try {
+                return objectMapper.readValue(cacheFile.toFile(), new TypeReference<Map<String, List<PullRequest>>>() {
+                });
+            } catch (IOException e) {
+                // fetch the items again
+            }
+        }
+
+        Map<String, List<PullRequest>> result = new LinkedHashMap<>();
+        columnNames.forEach(column -> result.put(column, new ArrayList<>()));
         String cursor = null;
 
         String query = """
-                query($projectId: ID!, $after: String) {
+                query($projectId: ID!, $filter: String!, $statusField: String!, $after: String) {
                   node(id: $projectId) {
                     ... on ProjectV2 {
-                      items(first: 100, after: $after) {
+                      items(first: 100, after: $after, query: $filter) {
                         nodes {
-                          fieldValues(first: 20) {
-                            nodes {
-                              ... on ProjectV2ItemFieldSingleSelectValue {
-                                name
-                              }
+                          status: fieldValueByName(name: $statusField) {
+                            ... on ProjectV2ItemFieldSingleSelectValue {
+                              name
                             }
                           }
                           content {
@@ -270,8 +774,11 @@ public class CheckBackports implements Runnable {
                 }""";
 
         while (true) {
-            Map<String, Object> variables = new java.util.LinkedHashMap<>();
+            Map<String, Object> variables = new LinkedHashMap<>();
             variables.put("projectId", projectId);
+            variables.put("filter", "is:pr " + STATUS_FIELD.toLowerCase() + ":"
+                    + columnNames.stream().map(column -> "\"" + column + "\"").collect(Collectors.joining(",")));
+            variables.put("statusField", STATUS_FIELD);
             variables.put("after", cursor);
 
             JsonNode response = graphql(query, variables);
@@ -279,24 +786,19 @@ public class CheckBackports implements Runnable {
             JsonNode nodes = items.get("nodes");
 
             for (JsonNode item : nodes) {
-                // Check if any field value matches the column name
-                boolean matches = false;
-                for (JsonNode fv : item.at("/fieldValues/nodes")) {
-                    if (fv.has("name") && columnName.equals(fv.get("name").asText())) {
-                        matches = true;
-                        break;
-                    }
+                // The filter is a search, make sure the item is exactly in one of the columns
+                List<PullRequest> column = result.get(item.at("/status/name").asText());
+                if (column == null) {
+                    continue;
                 }
 
-                if (matches) {
-                    JsonNode content = item.get("content");
-                    if (content != null && content.has("number")) {
-                        result.add(new PullRequest(
-                                content.get("number").asInt(),
-                                content.get("title").asText(),
-                                content.get("url").asText(),
-                                content.get("baseRefName").asText()));
-                    }
+                JsonNode content = item.get("content");
+                if (content != null && content.has("number")) {
+                    column.add(new PullRequest(
+                            content.get("number").asInt(),
+                            content.get("title").asText(),
+                            content.get("url").asText(),
+                            content.get("baseRefName").asText()));
                 }
             }
 
@@ -308,89 +810,475 @@ public class CheckBackports implements Runnable {
             }
         }
 
+        if (itemsCacheTtl > 0) {
+            try {
+                Files.createDirectories(cacheDirectory);
+                objectMapper.writeValue(cacheFile.toFile(), result);
+            } catch (IOException e) {
+                System.err.println("Unable to cache the project items in " + cacheFile + ": " + e.getMessage());
+            }
+        }
         return result;
     }
 
-    private List<CommitInfo> getPullRequestCommits(int prNumber) throws Exception {
-        List<CommitInfo> commits = new ArrayList<>();
-        String cursor = null;
+    /**
+     * Fetches the commits of the pull requests, several pull requests per query and a few queries at a time.
+     */
+    private Map<Integer, List<CommitInfo>> fetchPullRequestCommits(List<PullRequest> pullRequests) throws Exception {
+        Map<Integer, List<CommitInfo>> commits = new ConcurrentHashMap<>();
+        AtomicInteger fetched = new AtomicInteger();
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_QUERIES);
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+        printProgress(0, pullRequests.size());
+        for (int i = 0; i < pullRequests.size(); i += PULL_REQUESTS_PER_QUERY) {
+            List<PullRequest> batch = pullRequests.subList(i, Math.min(i + PULL_REQUESTS_PER_QUERY, pullRequests.size()));
+            permits.acquire();
+            batches.add(fetchCommitsBatch(batch, commits).whenComplete((ignored, failure) -> {
+                permits.release();
+                printProgress(fetched.addAndGet(batch.size()), pullRequests.size());
+            }));
+        }
+        await(CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)));
+        return commits;
+    }
+
+    /**
+     * Fetches the first page of commits of each pull request of the batch with a single aliased query, then the remaining
+     * pages of the few pull requests with more than 100 commits.
+     */
+    private CompletableFuture<Void> fetchCommitsBatch(List<PullRequest> batch, Map<Integer, List<CommitInfo>> commits) {
+        StringBuilder query = new StringBuilder("query($owner: String!, $repo: String!) {\n");
+        query.append("  repository(owner: $owner, name: $repo) {\n");
+        for (PullRequest pr : batch) {
+            query.append("    pr").append(pr.number).append(": pullRequest(number: ").append(pr.number).append(") {\n");
+            query.append("      commits(first: 100) { ...commitPage }\n");
+            query.append("    }\n");
+        }
+        query.append("  }\n}\n").append(COMMIT_PAGE_FRAGMENT);
+
+        return graphqlAsync(query.toString(), Map.of("owner", ORG, "repo", REPO)).thenCompose(response -> {
+            List<CompletableFuture<Void>> remainingPages = new ArrayList<>();
+            for (PullRequest pr : batch) {
+                List<CommitInfo> prCommits = new ArrayList<>();
+                String cursor = addCommits(response.at("/data/repository/pr" + pr.number + "/commits"), prCommits);
+                commits.put(pr.number, prCommits);
+                if (cursor != null) {
+                    remainingPages.add(fetchRemainingCommits(pr.number, cursor, prCommits));
+                }
+            }
+            return CompletableFuture.allOf(remainingPages.toArray(CompletableFuture[]::new));
+        });
+    }
 
+    private CompletableFuture<Void> fetchRemainingCommits(int prNumber, String cursor, List<CommitInfo> commits) {
         String query = """
                 query($owner: String!, $repo: String!, $prNumber: Int!, $after: String) {
                   repository(owner: $owner, name: $repo) {
                     pullRequest(number: $prNumber) {
-                      commits(first: 100, after: $after) {
-                        nodes {
-                          commit { oid message }
-                        }
-                        pageInfo { hasNextPage endCursor }
-                      }
+                      commits(first: 100, after: $after) { ...commitPage }
                     }
                   }
-                }""";
+                }
+                """ + COMMIT_PAGE_FRAGMENT;
 
-        while (true) {
-            Map<String, Object> variables = new java.util.LinkedHashMap<>();
-            variables.put("owner", ORG);
-            variables.put("repo", REPO);
-            variables.put("prNumber", prNumber);
-            variables.put("after", cursor);
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("owner", ORG);
+        variables.put("repo", REPO);
+        variables.put("prNumber", prNumber);
+        variables.put("after", cursor);
 
-            JsonNode response = graphql(query, variables);
-            JsonNode commitsNode = response.at("/data/repository/pullRequest/commits");
-
-            for (JsonNode node : commitsNode.get("nodes")) {
-                JsonNode commit = node.get("commit");
-                String sha = commit.get("oid").asText();
-                String message = commit.get("message").asText();
-                String firstLine = message.split("\\n")[0];
-                if (!firstLine.startsWith("Merge branch ") && !firstLine.startsWith("Merge pull request ")) {
-                    commits.add(new CommitInfo(sha, firstLine));
+        return graphqlAsync(query, variables).thenCompose(response -> {
+            String nextCursor = addCommits(response.at("/data/repository/pullRequest/commits"), commits);
+            return nextCursor != null
+                    ? fetchRemainingCommits(prNumber, nextCursor, commits)
+                    : CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * @return the cursor of the next page, or null if this is the last page
+     */
+    private static String addCommits(JsonNode commitsNode, List<CommitInfo> commits) {
+        for (JsonNode node : commitsNode.get("nodes")) {
+            JsonNode commit = node.get("commit");
+            String sha = commit.get("oid").asText();
+            String message = commit.get("message").asText();
+            String firstLine = message.split("\\n")[0];
+            if (!firstLine.startsWith("Merge branch ") && !firstLine.startsWith("Merge pull request ")) {
+                commits.add(new CommitInfo(sha, firstLine));
+            }
+        }
+
+        JsonNode pageInfo = commitsNode.get("pageInfo");
+        return pageInfo.get("hasNextPage").asBoolean() ? pageInfo.get("endCursor").asText() : null;
+    }
+
+    private static synchronized void printProgress(int fetched, int total) {
+        System.out.print("\rFetching pull request commits... [" + fetched + "/" + total + "]");
+    }
+
+    /**
+     * Loads the index of the branch stored in the git directory and brings it up to date with the tip of the branch.
+     */
+    private BranchIndex loadBranchIndex(String branch, Path dir) throws Exception {
+        Path indexFile = indexDirectory(dir).resolve(branch + ".idx");
+        BranchIndex index = readIndex(indexFile);
+        if (index == null) {
+            index = new BranchIndex(indexFile, null, new HashSet<>(), null, new HashSet<>());
+        }
+        updateBranchIndex(index, branch, dir);
+        return index;
+    }
+
+    /**
+     * Brings the index up to date with the tip of the branch, only scanning the commits added since it was built. The index
+     * is rebuilt if the branch has been rewritten.
+     *
+     * @return whether the branch moved
+     */
+    private boolean updateBranchIndex(BranchIndex index, String branch, Path dir) throws Exception {
+        String tip = git(dir, "rev-parse", "--verify", "--quiet", branch + "^{commit}");
+        if (tip == null) {
+            throw new IllegalArgumentException("Unknown branch " + branch + " in " + dir);
+        }
+        if (tip.equals(index.tip)) {
+            return false;
+        }
+
+        if (index.tip != null && isAncestor(index.tip, tip, dir)) {
+            String newCommits = index.tip + ".." + tip;
+            index.cherryPicked.addAll(findCherryPickedCommits(newCommits, dir));
+            if (index.forkPoint != null) {
+                index.patchIds.addAll(computePatchIds(listCommits(newCommits, dir), dir).values());
+            }
+        } else {
+            if (index.tip != null) {
+                System.out.println("Branch " + branch + " has been rewritten, rebuilding the cherry-pick index...");
+            }
+            index.cherryPicked.clear();
+            index.cherryPicked.addAll(findCherryPickedCommits(tip, dir));
+            index.forkPoint = null;
+            index.patchIds.clear();
+        }
+        index.tip = tip;
+        storeIndex(index);
+        return true;
+    }
+
+    /**
+     * @return the directory of the git repository where we store our indexes
+     */
+    private static Path indexDirectory(Path dir) throws Exception {
+        String gitDir = git(dir, "rev-parse", "--absolute-git-dir");
+        if (gitDir == null) {
+            throw new IllegalArgumentException("Not a git repository: " + dir);
+        }
+        return Path.of(gitDir).resolve(INDEX_DIRECTORY);
+    }
+
+    /**
+     * @return the index, or null if there is no index or if it can't be read
+     */
+    private static BranchIndex readIndex(Path indexFile) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile)) {
+            if (!INDEX_HEADER.equals(reader.readLine())) {
+                return null;
+            }
+            String tipLine = reader.readLine();
+            if (tipLine == null || !tipLine.startsWith("tip ")) {
+                return null;
+            }
+            String forkPoint = null;
+            Set<String> cherryPicked = new HashSet<>();
+            Set<String> patchIds = new HashSet<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("c ")) {
+                    cherryPicked.add(line.substring(2));
+                } else if (line.startsWith("p ")) {
+                    patchIds.add(line.substring(2));
+                } else if (line.startsWith("fork ")) {
+                    forkPoint = line.substring(5);
                 }
             }
+            return new BranchIndex(indexFile, tipLine.substring(4), cherryPicked, forkPoint, patchIds);
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-            JsonNode pageInfo = commitsNode.get("pageInfo");
-            if (pageInfo.get("hasNextPage").asBoolean()) {
-                cursor = pageInfo.get("endCursor").asText();
-            } else {
-                break;
+    /**
+     * Writes the index to a temporary file first so that an interrupted run never leaves a truncated index behind.
+     * Failing to store the index only makes the next run slower, so it is not an error.
+     */
+    private static void storeIndex(BranchIndex index) {
+        try {
+            Files.createDirectories(index.file.getParent());
+            Path tmpFile = index.file.resolveSibling(index.file.getFileName() + ".tmp");
+            try (var writer = Files.newBufferedWriter(tmpFile)) {
+                writer.write(INDEX_HEADER);
+                writer.newLine();
+                writer.write("tip " + index.tip);
+                writer.newLine();
+                if (index.forkPoint != null) {
+                    writer.write("fork " + index.forkPoint);
+                    writer.newLine();
+                }
+                for (String sha : index.cherryPicked) {
+                    writer.write("c " + sha);
+                    writer.newLine();
+                }
+                for (String patchId : index.patchIds) {
+                    writer.write("p " + patchId);
+                    writer.newLine();
+                }
             }
+            Files.move(tmpFile, index.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Unable to store the cherry-pick index in " + index.file + ": " + e.getMessage());
         }
+    }
 
-        return commits;
+    private static boolean isAncestor(String ancestor, String commit, Path dir) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder("git", "merge-base", "--is-ancestor", ancestor, commit);
+        pb.directory(dir.toFile());
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        p.getInputStream().readAllBytes();
+        // 1 means not an ancestor, anything else is an error, e.g. the previous tip has been garbage collected
+        return p.waitFor() == 0;
     }
 
-    private boolean isCherryPicked(String sha, String branch, Path dir) throws Exception {
+    /**
+     * Finds the commits applied to the branch without the cherry-pick trailer, e.g. applied by hand or rebased, by comparing
+     * their patch-ids with the ones of the commits of the branch since its fork point.
+     * <p>
+     * The patch-ids of the branch are kept in the index, so only the new commits of the branch are hashed on the next runs.
+     *
+     * @return the commits with a patch already applied to the branch
+     */
+    private Set<String> findCommitsWithSamePatch(List<String> commits, BranchIndex index, Path dir) throws Exception {
+        // commits of pull requests from forks might not be available locally
+        List<String> localCommits = filterLocalCommits(commits, dir);
+        if (localCommits.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> mergeBase = new ArrayList<>(List.of("merge-base", index.tip));
+        mergeBase.addAll(localCommits);
+        String forkPoint = git(dir, mergeBase.toArray(String[]::new));
+        if (forkPoint == null) {
+            return Set.of();
+        }
+        if (!forkPoint.equals(index.forkPoint)) {
+            index.patchIds.clear();
+            index.patchIds.addAll(computePatchIds(listCommits(forkPoint + ".." + index.tip, dir), dir).values());
+            index.forkPoint = forkPoint;
+            storeIndex(index);
+        }
+
+        Set<String> samePatch = new HashSet<>();
+        for (Map.Entry<String, String> patchId : computePatchIds(localCommits, dir).entrySet()) {
+            if (index.patchIds.contains(patchId.getValue())) {
+                samePatch.add(patchId.getKey());
+            }
+        }
+        return samePatch;
+    }
+
+    /**
+     * Computes the stable patch-ids of the commits, streaming the patches from git log to git patch-id. The commits are split
+     * in chunks hashed in parallel.
+     *
+     * @return the patch-ids by commit, commits without changes don't have a patch-id
+     */
+    private static Map<String, String> computePatchIds(List<String> commits, Path dir) throws Exception {
+        if (commits.isEmpty()) {
+            return Map.of();
+        }
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(1, Math.min(PATCH_ID_CHUNK_SIZE, (commits.size() + parallelism - 1) / parallelism));
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Map<String, String>>> chunks = new ArrayList<>();
+            for (int i = 0; i < commits.size(); i += chunkSize) {
+                List<String> chunk = commits.subList(i, Math.min(i + chunkSize, commits.size()));
+                chunks.add(executor.submit(() -> computeChunkPatchIds(chunk, dir)));
+            }
+            Map<String, String> patchIds = new HashMap<>();
+            for (Future<Map<String, String>> chunk : chunks) {
+                patchIds.putAll(await(chunk));
+            }
+            return patchIds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> computeChunkPatchIds(List<String> commits, Path dir) throws Exception {
+        List<String> log = new ArrayList<>(
+                List.of("git", "log", "-p", "--no-walk=unsorted", "--no-renames", "--no-color", "--no-ext-diff"));
+        log.addAll(commits);
+        List<Process> pipeline = ProcessBuilder.startPipeline(List.of(
+                new ProcessBuilder(log).directory(dir.toFile()).redirectError(ProcessBuilder.Redirect.DISCARD),
+                new ProcessBuilder("git", "patch-id", "--stable").directory(dir.toFile())
+                        .redirectError(ProcessBuilder.Redirect.DISCARD)));
+
+        Map<String, String> patchIds = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(pipeline.get(1).getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // <patch-id> <commit>
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    patchIds.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        }
+        for (Process p : pipeline) {
+            if (p.waitFor() != 0) {
+                throw new IllegalStateException("Failed to compute the patch-ids of " + commits.size() + " commits in " + dir);
+            }
+        }
+        return patchIds;
+    }
+
+    /**
+     * @return the commits among the given ones that are available in the local repository
+     */
+    private static List<String> filterLocalCommits(List<String> commits, Path dir) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder("git", "cat-file", "--batch-check=%(objectname) %(objecttype)");
+        pb.directory(dir.toFile());
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process p = pb.start();
+        // feed the commits from another thread so that we never block on a full output pipe
+        CompletableFuture<Void> input = CompletableFuture.runAsync(() -> {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()))) {
+                for (String commit : commits) {
+                    writer.write(commit);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<String> localCommits = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // unknown objects are reported as "<sha> missing"
+                if (line.endsWith(" commit")) {
+                    localCommits.add(line.substring(0, line.indexOf(' ')));
+                }
+            }
+        }
+        await(input);
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("Failed to look up the pull request commits in " + dir);
+        }
+        return localCommits;
+    }
+
+    private static List<String> listCommits(String revisions, Path dir) throws Exception {
+        String output = git(dir, "rev-list", "--no-merges", revisions);
+        if (output == null) {
+            throw new IllegalStateException("Failed to list the commits of " + revisions + " in " + dir);
+        }
+        return output.isEmpty() ? List.of() : List.of(output.split("\n"));
+    }
+
+    /**
+     * Walks the given revisions once and collects the commits referenced by a {@code (cherry picked from commit X)} trailer,
+     * so that checking a commit is a simple lookup.
+     */
+    private Set<String> findCherryPickedCommits(String revisions, Path dir) throws Exception {
         ProcessBuilder pb = new ProcessBuilder(
-                "git", "log", branch, "--grep=cherry picked from commit " + sha, "--oneline", "-1");
+                "git", "log", revisions, "--grep=cherry picked from commit ", "--fixed-strings", "--format=%B");
         pb.directory(dir.toFile());
         pb.redirectErrorStream(true);
         Process p = pb.start();
-        String output = new BufferedReader(new InputStreamReader(p.getInputStream()))
-                .lines().collect(Collectors.joining("\n")).trim();
-        return p.waitFor() == 0 && !output.isBlank();
+        Set<String> cherryPicked = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = CHERRY_PICKED_FROM.matcher(line);
+                while (matcher.find()) {
+                    cherryPicked.add(matcher.group(1));
+                }
+            }
+        }
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("Failed to read the history of " + revisions + " in " + dir);
+        }
+        return cherryPicked;
     }
 
     private JsonNode graphql(String query, Map<String, Object> variables) throws Exception {
+        return await(graphqlAsync(query, variables));
+    }
+
+    private CompletableFuture<JsonNode> graphqlAsync(String query, Map<String, Object> variables) {
         ObjectNode body = objectMapper.createObjectNode();
         body.put("query", query);
         body.set("variables", objectMapper.valueToTree(variables));
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(GRAPHQL_URL))
+                .uri(URI.create(graphqlUrl))
                 .header("Authorization", "Bearer " + token)
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                 .build();
-        HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("GraphQL HTTP " + response.statusCode() + ": " + response.body());
-        }
-        JsonNode json = objectMapper.readTree(response.body());
-        if (json.has("errors")) {
-            throw new RuntimeException("GraphQL error: " + json.get("errors"));
+        return HTTP.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("GraphQL HTTP " + response.statusCode() + ": " + response.body());
+            }
+            JsonNode json;
+            try {
+                json = objectMapper.readTree(response.body());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (json.has("errors")) {
+                throw new RuntimeException("GraphQL error: " + json.get("errors"));
+            }
+            return json;
+        });
+    }
+
+    /**
+     * Waits for the future, rethrowing the actual failure.
+     */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return json;
+    }
+
+    /**
+     * @return the trimmed output of the command, or null if it failed
+     */
+    private static String git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(dir.toFile());
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        String output = new BufferedReader(new InputStreamReader(p.getInputStream()))
+                .lines().collect(Collectors.joining("\n")).trim();
+        return p.waitFor() == 0 ? output : null;
     }
 
     private static String plural(int count) {
@@ -400,4 +1288,26 @@ public class CheckBackports implements Runnable {
     record PullRequest(int number, String title, String url, String baseRefName) {}
     record CommitInfo(String sha, String firstLine) {}
     record PullRequestReport(PullRequest pullRequest, List<CommitInfo> missingCommits) {}
+    record Target(String version, String majorMinor, String branch) {}
+    record ProjectTarget(String majorMinor, String branch) {}
+    record ColumnReport(Target target, List<PullRequest> checkedPullRequests, List<PullRequestReport> missingPullRequests) {}
+
+    /**
+     * The cherry-picks and the patch-ids of a branch at a given tip, kept in the git directory between runs.
+     */
+    static final class BranchIndex {
+        final Path file;
+        String tip;
+        final Set<String> cherryPicked;
+        String forkPoint;
+        final Set<String> patchIds;
+
+        BranchIndex(Path file, String tip, Set<String> cherryPicked, String forkPoint, Set<String> patchIds) {
+            this.file = file;
+            this.tip = tip;
+            this.cherryPicked = cherryPicked;
+            this.forkPoint = forkPoint;
+            this.patchIds = patchIds;
+        }
+    }
 }
@@ -0,0 +1,517 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//DEPS io.quarkus.platform:quarkus-bom:3.36.1@pom
+//DEPS io.quarkus:quarkus-jackson
+//DEPS io.quarkus:quarkus-picocli
+
+//JAVAC_OPTIONS -parameters
+//JAVA_OPTIONS -Djava.util.logging.manager=org.jboss.logmanager.LogManager
+//JAVA_OPTIONS -Dquarkus.log.level=WARN
+//JAVA_OPTIONS -Dquarkus.banner.enabled=false
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.inject.Inject;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "CheckBackportsBenchmark",
+        description = "Time CheckBackports end to end against a synthetic git repository and a stand-in GraphQL server")
+public class CheckBackportsBenchmark implements Runnable {
+
+    private static final String VERSION = "3.0.1";
+    private static final String BRANCH = "3.0";
+    private static final String PROJECT_ID = "PVT_benchmark";
+    private static final int FIRST_PULL_REQUEST = 1000;
+    private static final int PAGE_SIZE = 100;
+    private static final Pattern PULL_REQUEST_ALIAS = Pattern.compile("pr(\\d+): pullRequest");
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Option(names = "--history", defaultValue = "5000",
+            description = "Number of commits of main before the fork point (default: 5000)")
+    int history;
+
+    @Option(names = "--branch-commits", defaultValue = "500",
+            description = "Number of commits only made on the maintenance branch (default: 500)")
+    int branchCommits;
+
+    @Option(names = "--pull-requests", defaultValue = "100",
+            description = "Number of pull requests in the column (default: 100)")
+    int pullRequests;
+
+    @Option(names = "--commits-per-pull-request", defaultValue = "3",
+            description = "Number of commits of each pull request (default: 3)")
+    int commitsPerPullRequest;
+
+    @Option(names = "--without-trailer", defaultValue = "0.2",
+            description = "Ratio of the commits cherry-picked without -x (default: 0.2)")
+    double withoutTrailerRatio;
+
+    @Option(names = "--conflicting", defaultValue = "0.05",
+            description = "Ratio of the commits applied with a different patch, as after resolving a conflict by hand "
+                    + "(default: 0.05)")
+    double conflictingRatio;
+
+    @Option(names = "--missing", defaultValue = "0.05",
+            description = "Ratio of the commits not backported at all (default: 0.05)")
+    double missingRatio;
+
+    @Option(names = "--latency", paramLabel = "<ms>", defaultValue = "0",
+            description = "Latency added to each GraphQL response (default: 0)")
+    int latency;
+
+    @Option(names = "--iterations", defaultValue = "5", description = "Number of timed runs per scenario (default: 5)")
+    int iterations;
+
+    @Option(names = "--seed", defaultValue = "42", description = "Seed of the generated repository (default: 42)")
+    long seed;
+
+    @Option(names = "--check-backports", paramLabel = "<file>", defaultValue = "CheckBackports.java",
+            description = "The CheckBackports script to benchmark (default: CheckBackports.java)")
+    Path checkBackports;
+
+    @Option(names = "--jbang", paramLabel = "<command>", defaultValue = "jbang",
+            description = "The jbang command used to run CheckBackports (default: jbang)")
+    String jbang;
+
+    @Option(names = "--keep", description = "Keep the generated repository")
+    boolean keep;
+
+    private Path workDir;
+
+    @Override
+    public void run() {
+        try {
+            doRun();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void doRun() throws Exception {
+        workDir = Files.createTempDirectory("check-backports-benchmark");
+        Path repository = workDir.resolve("repository");
+
+        System.out.println("Generating the repository in " + repository + "...");
+        long start = System.nanoTime();
+        SyntheticRepository synthetic = generateRepository(repository);
+        System.out.println("  " + (history + synthetic.candidates() + branchCommits) + " commits in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.out.println("  " + synthetic.candidates() + " pull request commits: " + synthetic.withoutTrailer()
+                + " cherry-picked without -x, " + synthetic.conflicting() + " with a different patch, "
+                + synthetic.missing() + " missing");
+        System.out.println();
+
+        HttpServer server = startGraphQLServer(synthetic);
+        String graphqlUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/graphql";
+        try {
+            int missing = synthetic.missing() + synthetic.conflicting();
+            List<Scenario> scenarios = List.of(
+                    new Scenario("trailers, cold index", true, true, missing + synthetic.withoutTrailer()),
+                    new Scenario("trailers, warm index", true, false, missing + synthetic.withoutTrailer()),
+                    new Scenario("trailers + patch-ids, cold index", false, true, missing),
+                    new Scenario("trailers + patch-ids, warm index", false, false, missing));
+
+            System.out.printf("%-34s %10s %10s %10s %10s%n", "Scenario", "min (ms)", "median", "max", "reported");
+            for (Scenario scenario : scenarios) {
+                // the first run is not timed: it builds the script and, for the warm scenarios, the index
+                runCheckBackports(repository, graphqlUrl, scenario);
+
+                List<Long> timings = new ArrayList<>();
+                int reported = 0;
+                for (int i = 0; i < iterations; i++) {
+                    if (scenario.coldIndex()) {
+                        deleteRecursively(repository.resolve(".git").resolve("check-backports"));
+                    }
+                    long iterationStart = System.nanoTime();
+                    reported = runCheckBackports(repository, graphqlUrl, scenario);
+                    timings.add((System.nanoTime() - iterationStart) / 1_000_000);
+                }
+                Collections.sort(timings);
+                String reportedMissing = reported == scenario.expectedMissing()
+                        ? String.valueOf(reported)
+                        : reported + " (expected " + scenario.expectedMissing() + ")";
+                System.out.printf("%-34s %10d %10d %10d %10s%n", scenario.name(), timings.get(0),
+                        timings.get(timings.size() / 2), timings.get(timings.size() - 1), reportedMissing);
+            }
+        } finally {
+            server.stop(0);
+            if (keep) {
+                System.out.println();
+                System.out.println("The repository has been kept in " + repository);
+            } else {
+                deleteRecursively(workDir);
+            }
+        }
+    }
+
+    /**
+     * Runs CheckBackports against the repository and the stand-in server.
+     *
+     * @return the number of commits reported as missing
+     */
+    private int runCheckBackports(Path repository, String graphqlUrl, Scenario scenario) throws Exception {
+        Path report = workDir.resolve("report.json");
+        List<String> command = new ArrayList<>(List.of(jbang, checkBackports.toAbsolutePath().toString(),
+                repository.toString(), VERSION, BRANCH, "--graphql-url", graphqlUrl, "--json", report.toString()));
+        if (scenario.trailersOnly()) {
+            command.add("--no-patch-ids");
+        }
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        pb.environment().put("GITHUB_TOKEN", "benchmark");
+        Process p = pb.start();
+        String output = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("CheckBackports failed:\n" + output);
+        }
+
+        int missing = 0;
+        for (JsonNode column : objectMapper.readTree(report.toFile()).get("columns")) {
+            for (JsonNode pullRequest : column.get("missingPullRequests")) {
+                missing += pullRequest.get("missingCommits").size();
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Generates the repository with git fast-import: the history of main up to the fork point, the commits of the pull
+     * requests on main, then the maintenance branch with its own commits and the backports, in a random order.
+     * <p>
+     * Each pull request commit adds its own file so that a backport has the same patch-id as the original commit unless we
+     * change its content on purpose.
+     */
+    private SyntheticRepository generateRepository(Path repository) throws Exception {
+        Files.createDirectories(repository);
+        git(repository, "init", "--quiet", "--initial-branch=main");
+        Random random = new Random(seed);
+        Path marks = workDir.resolve("marks");
+
+        int mark = 0;
+        long timestamp = 1_700_000_000L;
+        Map<Integer, List<Integer>> markByPullRequest = new LinkedHashMap<>();
+        try (FastImport main = new FastImport(repository, marks)) {
+            for (int i = 1; i <= history; i++) {
+                main.commit("refs/heads/main", ++mark, mark > 1 ? ":" + (mark - 1) : null, timestamp++,
+                        "Change " + i, "src/file" + (i % 200) + ".txt", "Change " + i + "\n");
+            }
+            for (int p = 0; p < pullRequests; p++) {
+                List<Integer> pullRequestMarks = new ArrayList<>();
+                for (int c = 1; c <= commitsPerPullRequest; c++) {
+                    main.commit("refs/heads/main", ++mark, ":" + (mark - 1), timestamp++,
+                            candidateMessage(p, c), candidatePath(p, c), candidateContent(p, c));
+                    pullRequestMarks.add(mark);
+                }
+                markByPullRequest.put(FIRST_PULL_REQUEST + p, pullRequestMarks);
+            }
+        }
+        Map<Integer, String> shas = readMarks(marks);
+        String forkPoint = shas.get(history);
+
+        // the events of the maintenance branch: null for a commit only made on the branch
+        List<int[]> events = new ArrayList<>();
+        for (int i = 0; i < branchCommits; i++) {
+            events.add(null);
+        }
+        markByPullRequest.forEach((number, pullRequestMarks) -> {
+            for (int c = 0; c < pullRequestMarks.size(); c++) {
+                events.add(new int[] { number - FIRST_PULL_REQUEST, c + 1, pullRequestMarks.get(c) });
+            }
+        });
+        Collections.shuffle(events, random);
+
+        int missing = 0;
+        int conflicting = 0;
+        int withoutTrailer = 0;
+        int branchCommit = 0;
+        try (FastImport branch = new FastImport(repository, null)) {
+            String from = forkPoint;
+            for (int[] event : events) {
+                if (event == null) {
+                    branchCommit++;
+                    branch.commit("refs/heads/" + BRANCH, 0, from, timestamp++, "Branch change " + branchCommit,
+                            "branch/file" + (branchCommit % 50) + ".txt", "Branch change " + branchCommit + "\n");
+                    from = null;
+                    continue;
+                }
+
+                int p = event[0];
+                int c = event[1];
+                String sha = shas.get(event[2]);
+                double outcome = random.nextDouble();
+                if (outcome < missingRatio) {
+                    missing++;
+                    continue;
+                }
+                if (outcome < missingRatio + conflictingRatio) {
+                    conflicting++;
+                    branch.commit("refs/heads/" + BRANCH, 0, from, timestamp++, candidateMessage(p, c),
+                            candidatePath(p, c), candidateContent(p, c) + "Resolved by hand\n");
+                } else if (outcome < missingRatio + conflictingRatio + withoutTrailerRatio) {
+                    withoutTrailer++;
+                    branch.commit("refs/heads/" + BRANCH, 0, from, timestamp++, candidateMessage(p, c),
+                            candidatePath(p, c), candidateContent(p, c));
+                } else {
+                    branch.commit("refs/heads/" + BRANCH, 0, from, timestamp++,
+                            candidateMessage(p, c) + "\n\n(cherry picked from commit " + sha + ")",
+                            candidatePath(p, c), candidateContent(p, c));
+                }
+                from = null;
+            }
+        }
+
+        Map<Integer, List<String>> commitsByPullRequest = new LinkedHashMap<>();
+        markByPullRequest.forEach((number, pullRequestMarks) -> commitsByPullRequest.put(number,
+                pullRequestMarks.stream().map(shas::get).toList()));
+        return new SyntheticRepository(commitsByPullRequest, missing, conflicting, withoutTrailer);
+    }
+
+    private static String candidateMessage(int pullRequest, int commit) {
+        return "Pull request " + (FIRST_PULL_REQUEST + pullRequest) + ", change " + commit;
+    }
+
+    private static String candidatePath(int pullRequest, int commit) {
+        return "pr" + (FIRST_PULL_REQUEST + pullRequest) + "/change" + commit + ".txt";
+    }
+
+    private static String candidateContent(int pullRequest, int commit) {
+        return "Pull request " + (FIRST_PULL_REQUEST + pullRequest) + ", change " + commit + "\n";
+    }
+
+    private static Map<Integer, String> readMarks(Path marks) throws IOException {
+        Map<Integer, String> shas = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(marks)) {
+            // :<mark> <sha>
+            int separator = line.indexOf(' ');
+            shas.put(Integer.parseInt(line.substring(1, separator)), line.substring(separator + 1));
+        }
+        return shas;
+    }
+
+    /**
+     * Serves the project, its items and the commits of the pull requests the way the GitHub GraphQL API does, for the
+     * queries sent by CheckBackports.
+     */
+    private HttpServer startGraphQLServer(SyntheticRepository repository) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // daemon threads so that the server never keeps the benchmark alive
+        server.setExecutor(Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "graphql-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/graphql", exchange -> {
+            try {
+                ObjectNode response = objectMapper.createObjectNode();
+                response.set("data", answer(objectMapper.readTree(exchange.getRequestBody()), repository));
+                if (latency > 0) {
+                    Thread.sleep(latency);
+                }
+                byte[] body = objectMapper.writeValueAsBytes(response);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (Exception e) {
+                byte[] body = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(500, body.length);
+                exchange.getResponseBody().write(body);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private ObjectNode answer(JsonNode request, SyntheticRepository repository) {
+        String query = request.get("query").asText();
+        JsonNode variables = request.path("variables");
+        ObjectNode data = objectMapper.createObjectNode();
+
+        if (query.contains("projectsV2")) {
+            data.putObject("organization").putObject("projectsV2").putArray("nodes").addObject()
+                    .put("id", PROJECT_ID)
+                    .put("title", "Backports for " + BRANCH);
+        } else if (query.contains("field(name:")) {
+            data.putObject("node").putObject("field").putArray("options").addObject().put("name", VERSION);
+        } else if (query.contains("items(")) {
+            List<Integer> numbers = new ArrayList<>(repository.commitsByPullRequest().keySet());
+            int offset = offset(variables);
+            ObjectNode items = data.putObject("node").putObject("items");
+            ArrayNode nodes = items.putArray("nodes");
+            for (int number : numbers.subList(offset, Math.min(offset + PAGE_SIZE, numbers.size()))) {
+                ObjectNode item = nodes.addObject();
+                item.putObject("status").put("name", VERSION);
+                item.putObject("content")
+                        .put("number", number)
+                        .put("title", "Pull request " + number)
+                        .put("url", "https://github.com/quarkusio/quarkus/pull/" + number)
+                        .put("baseRefName", "main");
+            }
+            setPageInfo(items, offset, numbers.size());
+        } else if (query.contains("pullRequest(number: $prNumber)")) {
+            int number = variables.get("prNumber").asInt();
+            data.putObject("repository").putObject("pullRequest")
+                    .set("commits", commitPage(number, repository.commitsByPullRequest().get(number), offset(variables)));
+        } else {
+            ObjectNode pullRequests = data.putObject("repository");
+            Matcher matcher = PULL_REQUEST_ALIAS.matcher(query);
+            while (matcher.find()) {
+                int number = Integer.parseInt(matcher.group(1));
+                pullRequests.putObject("pr" + number)
+                        .set("commits", commitPage(number, repository.commitsByPullRequest().get(number), 0));
+            }
+        }
+        return data;
+    }
+
+    private ObjectNode commitPage(int number, List<String> commits, int offset) {
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode nodes = page.putArray("nodes");
+        for (int c = offset; c < Math.min(offset + PAGE_SIZE, commits.size()); c++) {
+            nodes.addObject().putObject("commit")
+                    .put("oid", commits.get(c))
+                    .put("message", candidateMessage(number - FIRST_PULL_REQUEST, c + 1));
+        }
+        setPageInfo(page, offset, commits.size());
+        return page;
+    }
+
+    /**
+     * Our cursors are simply the offset of the next page.
+     */
+    private static int offset(JsonNode variables) {
+        JsonNode after = variables.path("after");
+        return after.isTextual() ? Integer.parseInt(after.asText()) : 0;
+    }
+
+    private static void setPageInfo(ObjectNode connection, int offset, int total) {
+        boolean hasNextPage = offset + PAGE_SIZE < total;
+        ObjectNode pageInfo = connection.putObject("pageInfo").put("hasNextPage", hasNextPage);
+        if (hasNextPage) {
+            pageInfo.put("endCursor", String.valueOf(offset + PAGE_SIZE));
+        } else {
+            pageInfo.putNull("endCursor");
+        }
+    }
+
+    private static void git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(dir.toFile());
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        String output = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("git " + String.join(" ", args) + " failed:\n" + output);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Streams commits to git fast-import, which is much faster than creating them one git process at a time.
+     */
+    private static final class FastImport implements AutoCloseable {
+
+        private final Process process;
+        private final BufferedWriter writer;
+
+        FastImport(Path repository, Path exportMarks) throws IOException {
+            List<String> command = new ArrayList<>(List.of("git", "fast-import", "--quiet"));
+            if (exportMarks != null) {
+                command.add("--export-marks=" + exportMarks);
+            }
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.directory(repository.toFile());
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            process = pb.start();
+            writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @param mark the mark of the commit, 0 for none
+         * @param from the parent of the commit, a mark or a sha, null to continue the branch
+         */
+        void commit(String ref, int mark, String from, long timestamp, String message, String path, String content)
+                throws IOException {
+            writer.write("commit " + ref + "\n");
+            if (mark > 0) {
+                writer.write("mark :" + mark + "\n");
+            }
+            writer.write("committer Benchmark <benchmark@example.com> " + timestamp + " +0000\n");
+            data(message);
+            if (from != null) {
+                writer.write("from " + from + "\n");
+            }
+            writer.write("M 100644 inline " + path + "\n");
+            data(content);
+        }
+
+        private void data(String payload) throws IOException {
+            writer.write("data " + payload.getBytes(StandardCharsets.UTF_8).length + "\n");
+            writer.write(payload);
+            writer.write("\n");
+        }
+
+        @Override
+        public void close() throws Exception {
+            writer.close();
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("git fast-import failed");
+            }
+        }
+    }
+
+    /**
+     * @param commitsByPullRequest the commits of the pull requests of the column, on main
+     */
+    record SyntheticRepository(Map<Integer, List<String>> commitsByPullRequest, int missing, int conflicting,
+            int withoutTrailer) {
+
+        int candidates() {
+            return commitsByPullRequest.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    record Scenario(String name, boolean trailersOnly, boolean coldIndex, int expectedMissing) {}
+}
@@ -0,0 +1,61 @@
+package io.quarkus.backports.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.backports.graphql.GraphQLOperation;
+import io.quarkus.qute.Engine;
+import io.quarkus.qute.Template;
+
+/**
+ * Rendering and minification of the {@code findIssues} query with a growing number of issues.
+ * <p>
+ * The template is rendered with a plain Qute engine, which is what the type-safe template ends up calling at runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindIssuesRenderingBenchmark {
+
+    @Param({ "10", "50", "1000" })
+    int issueCount;
+
+    private Template template;
+
+    private List<Integer> issues;
+
+    @Setup
+    public void setup() throws IOException {
+        Engine engine = Engine.builder().addDefaults().build();
+        try (InputStream is = FindIssuesRenderingBenchmark.class
+                .getResourceAsStream("/templates/GitHubService/findIssues.graphql")) {
+            template = engine.parse(new String(is.readAllBytes(), StandardCharsets.UTF_8), null,
+                    "GitHubService/findIssues.graphql");
+        }
+        issues = IntStream.range(0, issueCount).map(i -> 10_000 + i * 7).boxed().toList();
+    }
+
+    @Benchmark
+    public GraphQLOperation render() {
+        return GraphQLOperation.render(template.data("issues", issues));
+    }
+}
@@ -0,0 +1,58 @@
+package io.quarkus.backports.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.quarkus.backports.IssueExtractor;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Extraction of the issues referenced in the pull request bodies of a page of search results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueExtractorBenchmark {
+
+    @Param({ Payloads.RECORDED, "1000", "10000" })
+    String payload;
+
+    private IssueExtractor issueExtractor;
+
+    private List<String> bodies;
+
+    @Setup
+    public void setup() {
+        issueExtractor = new IssueExtractor(Payloads.REPOSITORY);
+        bodies = new JsonObject(Payloads.searchResponse(payload)).getJsonObject("data").getJsonObject("search")
+                .getJsonArray("nodes").stream()
+                .map(JsonObject.class::cast)
+                .map(pr -> pr.getString("body"))
+                .toList();
+    }
+
+    @Benchmark
+    public void extractIssueNumbers(Blackhole blackhole) {
+        for (String body : bodies) {
+            Set<Integer> issueNumbers = issueExtractor.extractIssueNumbers(body);
+            blackhole.consume(issueNumbers);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.quarkus.backports.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The GraphQL responses used by the benchmarks: either recorded from the GitHub API or synthetic.
+ */
+final class Payloads {
+
+    static final String REPOSITORY = "quarkusio/quarkus";
+
+    /**
+     * The payload parameter of the benchmarks: {@code recorded} or a number of pull requests.
+     */
+    static final String RECORDED = "recorded";
+
+    private Payloads() {
+    }
+
+    /**
+     * @return the raw search response for the given payload parameter
+     */
+    static Buffer searchResponse(String payload) {
+        if (RECORDED.equals(payload)) {
+            return recorded("listPullRequests_output.json");
+        }
+        return syntheticSearchResponse(Integer.parseInt(payload)).toBuffer();
+    }
+
+    static Buffer recorded(String name) {
+        try (InputStream is = Payloads.class.getResourceAsStream("/graphql/" + name)) {
+            if (is == null) {
+                throw new IllegalArgumentException("Unknown recorded payload: " + name);
+            }
+            return Buffer.buffer(is.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A search response shaped like the ones of {@code listPullRequestsToBackport}, with a realistic mix of commits,
+     * labels, linked issues and issue references in the bodies.
+     */
+    static JsonObject syntheticSearchResponse(int pullRequestCount) {
+        JsonArray nodes = new JsonArray();
+        for (int i = 0; i < pullRequestCount; i++) {
+            nodes.add(syntheticPullRequest(10_000 + i));
+        }
+        return new JsonObject().put("data", new JsonObject()
+                .put("search", new JsonObject()
+                        .put("nodes", nodes)
+                        .put("pageInfo", pageInfo())));
+    }
+
+    private static JsonObject syntheticPullRequest(int number) {
+        Instant createdAt = Instant.ofEpochSecond(1_700_000_000L + number * 60L);
+
+        JsonArray commits = new JsonArray();
+        for (int j = 0; j < 1 + number % 5; j++) {
+            String oid = String.format("%040x", (long) number * 31 + j);
+            commits.add(new JsonObject()
+                    .put("url", "https://github.com/" + REPOSITORY + "/pull/" + number + "/commits/" + oid)
+                    .put("commit", new JsonObject()
+                            .put("url", "https://github.com/" + REPOSITORY + "/commit/" + oid)
+                            .put("message", "Commit " + j + " of pull request " + number + "\n\nSome details about the change")
+                            .put("oid", oid)
+                            .put("abbreviatedOid", oid.substring(0, 7))
+                            .put("committedDate", createdAt.minusSeconds(3600 - j).toString())));
+        }
+
+        JsonArray labels = new JsonArray()
+                .add(new JsonObject().put("name", "triage/backport?"))
+                .add(new JsonObject().put("name", "area/core"));
+        if (number % 3 == 0) {
+            labels.add(new JsonObject().put("name", "area/infra"));
+        }
+
+        JsonArray timelineItems = new JsonArray();
+        if (number % 2 == 0) {
+            timelineItems.add(new JsonObject().put("subject", syntheticIssue(number - 1)));
+        }
+
+        return new JsonObject()
+                .put("id", "PR_" + number)
+                .put("number", number)
+                .put("url", "https://github.com/" + REPOSITORY + "/pull/" + number)
+                .put("title", "Fix the thing number " + number)
+                .put("createdAt", createdAt.toString())
+                .put("merged", true)
+                .put("mergedAt", createdAt.plusSeconds(86_400).toString())
+                .put("body", "This pull request fixes a few things.\n\nFixes #" + (number - 2) + "\nCloses https://github.com/"
+                        + REPOSITORY + "/issues/" + (number - 3) + "\n\nSee also #" + (number - 4))
+                .put("headRefName", "fix-" + number)
+                .put("baseRefName", "main")
+                .put("milestone", new JsonObject().put("id", "MI_1").put("title", "3.27.0.CR1"))
+                .put("author", new JsonObject()
+                        .put("login", "user" + number % 100)
+                        .put("avatarUrl", "https://avatars.githubusercontent.com/u/" + number % 100)
+                        .put("name", "User " + number % 100)
+                        .put("url", "https://github.com/user" + number % 100))
+                .put("commits", new JsonObject().put("nodes", commits).put("pageInfo", pageInfo()))
+                .put("labels", new JsonObject().put("nodes", labels).put("pageInfo", pageInfo()))
+                .put("timelineItems", new JsonObject().put("nodes", timelineItems).put("pageInfo", pageInfo()));
+    }
+
+    private static JsonObject syntheticIssue(int number) {
+        return new JsonObject()
+                .put("id", "I_" + number)
+                .put("number", number)
+                .put("title", "Issue " + number)
+                .put("url", "https://github.com/" + REPOSITORY + "/issues/" + number)
+                .put("body", "Something is broken")
+                .put("author", new JsonObject()
+                        .put("login", "reporter")
+                        .put("avatarUrl", "https://avatars.githubusercontent.com/u/1")
+                        .put("url", "https://github.com/reporter"));
+    }
+
+    private static JsonObject pageInfo() {
+        return new JsonObject().put("hasNextPage", false).put("endCursor", "Y3Vyc29yOjE=");
+    }
+}
@@ -0,0 +1,73 @@
+package io.quarkus.backports.benchmarks;
+
+import static io.quarkus.backports.graphql.JsonParsers.decodePath;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import io.quarkus.backports.PullRequestDecoder;
+import io.quarkus.backports.PullRequestDecoder.Page;
+import io.quarkus.backports.model.PullRequest;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Decoding of a page of search results to {@link PullRequest}s.
+ * <p>
+ * {@code decodeTree} only builds the JSON tree the previous implementation started from: it is a lower bound of what the
+ * tree based decoding used to cost and is kept as a baseline for the streaming decoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PullRequestDecoderBenchmark {
+
+    @Param({ Payloads.RECORDED, "1000", "10000" })
+    String payload;
+
+    private byte[] rawResponse;
+
+    @Setup
+    public void setup() {
+        rawResponse = Payloads.searchResponse(payload).getBytes();
+    }
+
+    @Benchmark
+    public List<PullRequest> decode() throws IOException {
+        PullRequestDecoder decoder = new PullRequestDecoder();
+        List<PullRequest> pullRequests = new ArrayList<>();
+        try (JsonParser parser = DatabindCodec.mapper().createParser(rawResponse)) {
+            parser.nextToken();
+            decodePath(parser, p -> {
+                Page<PullRequest> page = decoder.decodeSearch(p);
+                pullRequests.addAll(page.nodes());
+            }, "data", "search");
+        }
+        return pullRequests;
+    }
+
+    @Benchmark
+    public JsonObject decodeTree() {
+        return new JsonObject(Buffer.buffer(rawResponse));
+    }
+}
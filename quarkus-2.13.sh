@@ -1,6 +0,0 @@
-#! /bin/bash
-
-export BACKPORTS_REPOSITORY="quarkusio/quarkus"
-export BACKPORTS_LABEL="triage/backport-2.13"
-
-./mvnw clean quarkus:dev
@@ -1,6 +0,0 @@
-#! /bin/bash
-
-export BACKPORTS_REPOSITORY="quarkusio/quarkus"
-export BACKPORTS_LABEL="triage/backport-3.14"
-
-./mvnw clean quarkus:dev
@@ -2,5 +2,6 @@
 
 export BACKPORTS_REPOSITORY="quarkusio/quarkus"
 export BACKPORTS_LABEL="triage/backport"
+export BACKPORTS_BRANCH_LABELS="2.13:triage/backport-2.13,3.2:triage/backport-3.2,3.8:triage/backport-3.8,3.14:triage/backport-3.14,3.15:triage/backport-3.15,3.20:triage/backport-3.20,3.27:triage/backport-3.27,3.33:triage/backport-3.33"
 
 ./mvnw clean quarkus:dev
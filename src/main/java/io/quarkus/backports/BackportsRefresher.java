@@ -0,0 +1,349 @@
+package io.quarkus.backports;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.backports.graphql.Priority;
+import io.quarkus.backports.graphql.RateLimitBudget;
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.PullRequest;
+import io.quarkus.backports.model.Repository;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Keeps the data displayed by the pages warm.
+ * <p>
+ * Pages are served from the last good snapshot and the snapshots are refreshed in the background on a schedule, so the
+ * GitHub traffic doesn't depend on the number of page views. The snapshots are provided as {@link Uni}s so that the pages
+ * never block the event loop: a snapshot that is ready is served right away.
+ * <p>
+ * Each repository has its own snapshots, they are dropped with the {@link GitHubService} of the repository.
+ */
+@ApplicationScoped
+public class BackportsRefresher {
+
+    private static final Logger LOG = Logger.getLogger(BackportsRefresher.class);
+
+    @Inject
+    GitHubServices gitHubServices;
+
+    @Inject
+    RateLimitBudget rateLimitBudget;
+
+    /**
+     * Maximum time we wait for all the GitHub queries of a page to complete.
+     */
+    @ConfigProperty(name = "backports.github-timeout", defaultValue = "2m")
+    Duration gitHubTimeout;
+
+    /**
+     * We stop refreshing the milestones nobody looked at for this long.
+     */
+    @ConfigProperty(name = "backports.refresh.idle-timeout", defaultValue = "1h")
+    Duration idleTimeout;
+
+    private final Map<Repository, RepositorySnapshots> repositorySnapshots = new ConcurrentHashMap<>();
+
+    public Uni<MilestonesSnapshot> getMilestonesSnapshot(GitHubService gitHub) {
+        MilestonesSnapshot snapshot = snapshots(gitHub).milestonesSnapshot;
+        if (snapshot != null) {
+            return Uni.createFrom().item(snapshot);
+        }
+        return refreshMilestones(gitHub);
+    }
+
+    public Uni<MilestonesSnapshot> refreshMilestones(GitHubService gitHub) {
+        return refreshMilestones(gitHub, Priority.INTERACTIVE);
+    }
+
+    private Uni<MilestonesSnapshot> refreshMilestones(GitHubService gitHub, Priority priority) {
+        return withTimeout(gitHub.fetchOpenMilestones(priority)).map(milestones -> {
+            MilestonesSnapshot snapshot = new MilestonesSnapshot(milestones, Instant.now());
+            snapshots(gitHub).milestonesSnapshot = snapshot;
+            return snapshot;
+        });
+    }
+
+    public Uni<BranchSnapshot> getBranchSnapshot(GitHubService gitHub, Milestone milestone) {
+        RepositorySnapshots snapshots = snapshots(gitHub);
+        snapshots.lastAccesses.put(milestone, Instant.now());
+
+        BranchSnapshot snapshot = snapshots.branchSnapshots.get(milestone);
+        if (snapshot != null) {
+            return Uni.createFrom().item(snapshot);
+        }
+        return refreshBranch(gitHub, milestone);
+    }
+
+    public Uni<BranchSnapshot> refreshBranch(GitHubService gitHub, Milestone milestone) {
+        return refreshBranch(gitHub, milestone, Priority.INTERACTIVE);
+    }
+
+    private Uni<BranchSnapshot> refreshBranch(GitHubService gitHub, Milestone milestone, Priority priority) {
+        // the three searches are independent so we run them concurrently
+        return withTimeout(Uni.combine().all().unis(
+                gitHub.getBackportCandidatesPullRequests(milestone, priority),
+                gitHub.getOpenPullRequestsTargetingBranch(milestone, priority),
+                gitHub.getMergedPullRequestsTargetingBranchWithNoMilestone(milestone, priority))
+                .asTuple())
+                .map(pullRequests -> {
+                    BranchSnapshot snapshot = new BranchSnapshot(pullRequests.getItem1(), pullRequests.getItem2(),
+                            pullRequests.getItem3(), Instant.now());
+                    snapshots(gitHub).branchSnapshots.put(milestone, snapshot);
+                    return snapshot;
+                });
+    }
+
+    public Uni<MatrixSnapshot> getMatrixSnapshot(GitHubService gitHub) {
+        RepositorySnapshots snapshots = snapshots(gitHub);
+        snapshots.matrixLastAccess = Instant.now();
+
+        MatrixSnapshot snapshot = snapshots.matrixSnapshot;
+        if (snapshot != null) {
+            return Uni.createFrom().item(snapshot);
+        }
+        return refreshMatrix(gitHub);
+    }
+
+    /**
+     * The candidates of all the backport labels are fetched at once and partitioned by label.
+     */
+    public Uni<MatrixSnapshot> refreshMatrix(GitHubService gitHub) {
+        return refreshMatrix(gitHub, Priority.INTERACTIVE);
+    }
+
+    private Uni<MatrixSnapshot> refreshMatrix(GitHubService gitHub, Priority priority) {
+        return withTimeout(gitHub.getBackportCandidatesPullRequestsByLabel(priority))
+                .map(pullRequestsByLabel -> {
+                    MatrixSnapshot snapshot = toMatrixSnapshot(gitHub, pullRequestsByLabel, Instant.now());
+                    snapshots(gitHub).matrixSnapshot = snapshot;
+                    return snapshot;
+                });
+    }
+
+    /**
+     * Removes a pull request we just took care of from the snapshots so that it doesn't come back until the next refresh.
+     * <p>
+     * The pull request is still listed for the branches of the other backport labels it has.
+     */
+    public void removePullRequest(GitHubService gitHub, PullRequest pullRequest) {
+        RepositorySnapshots snapshots = snapshots(gitHub);
+        snapshots.branchSnapshots.replaceAll((milestone, snapshot) -> new BranchSnapshot(
+                gitHub.getKnownBackportCandidatesPullRequests(milestone),
+                without(snapshot.openPullRequestsTargetingBranch(), pullRequest),
+                without(snapshot.mergedPullRequestsTargetingBranchWithNoMilestone(), pullRequest),
+                snapshot.refreshedAt()));
+        updateMatrixSnapshot(gitHub, snapshots);
+    }
+
+    /**
+     * @return whether somebody is looking at the backports of this branch
+     */
+    public boolean isBranchTracked(GitHubService gitHub, String branch) {
+        RepositorySnapshots snapshots = repositorySnapshots.get(gitHub.getRepository());
+        return snapshots != null && snapshots.branchSnapshots.keySet().stream()
+                .anyMatch(milestone -> milestone.minorVersion().equals(branch));
+    }
+
+    /**
+     * Applies a pull request change notified by a webhook to the snapshots.
+     */
+    public void applyPullRequest(GitHubService gitHub, PullRequest pullRequest, boolean open) {
+        RepositorySnapshots snapshots = snapshots(gitHub);
+        snapshots.branchSnapshots.replaceAll((milestone, snapshot) -> {
+            boolean targetingBranch = milestone.minorVersion().equals(pullRequest.baseRefName);
+            return new BranchSnapshot(gitHub.getKnownBackportCandidatesPullRequests(milestone),
+                    with(snapshot.openPullRequestsTargetingBranch(), pullRequest, open && targetingBranch),
+                    with(snapshot.mergedPullRequestsTargetingBranchWithNoMilestone(), pullRequest,
+                            targetingBranch && GitHubService.isMergedWithNoMilestone(pullRequest)),
+                    snapshot.refreshedAt());
+        });
+        updateMatrixSnapshot(gitHub, snapshots);
+    }
+
+    private static void updateMatrixSnapshot(GitHubService gitHub, RepositorySnapshots snapshots) {
+        MatrixSnapshot snapshot = snapshots.matrixSnapshot;
+        if (snapshot != null) {
+            snapshots.matrixSnapshot = toMatrixSnapshot(gitHub, gitHub.getKnownBackportCandidatesPullRequestsByLabel(),
+                    snapshot.refreshedAt());
+        }
+    }
+
+    private static MatrixSnapshot toMatrixSnapshot(GitHubService gitHub,
+            Map<String, Collection<PullRequest>> pullRequestsByLabel, Instant refreshedAt) {
+        Map<String, List<String>> branchesByLabel = gitHub.getBranchesByBackportLabel();
+        List<LabelPartition> partitions = new ArrayList<>();
+        Set<PullRequest> pullRequests = new TreeSet<>();
+        pullRequestsByLabel.forEach((label, partition) -> {
+            partitions.add(new LabelPartition(label, branchesByLabel.getOrDefault(label, List.of()), partition,
+                    gitHub.getPullRequestsForBackportLabelUrl(label)));
+            pullRequests.addAll(partition);
+        });
+        return new MatrixSnapshot(partitions, pullRequests, refreshedAt);
+    }
+
+    private RepositorySnapshots snapshots(GitHubService gitHub) {
+        return repositorySnapshots.computeIfAbsent(gitHub.getRepository(), r -> new RepositorySnapshots());
+    }
+
+    private static Collection<PullRequest> with(Collection<PullRequest> pullRequests, PullRequest pullRequest,
+            boolean present) {
+        Set<PullRequest> result = new TreeSet<>(without(pullRequests, pullRequest));
+        if (present) {
+            result.add(pullRequest);
+        }
+        return result;
+    }
+
+    private static Collection<PullRequest> without(Collection<PullRequest> pullRequests, PullRequest pullRequest) {
+        return pullRequests.stream().filter(pr -> pr.number != pullRequest.number).toList();
+    }
+
+    @Scheduled(every = "{backports.refresh.interval}", delayed = "{backports.refresh.interval}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void refresh() {
+        if (!rateLimitBudget.allows(Priority.BACKGROUND)) {
+            LOG.infof("Deferring the refresh as the GitHub API budget is running low (%d points left until %s)",
+                    rateLimitBudget.getRemaining(), rateLimitBudget.getResetAt());
+            return;
+        }
+
+        Collection<GitHubService> activeServices = gitHubServices.getActive();
+        // the services of the idle repositories have been dropped, so are their snapshots
+        repositorySnapshots.keySet().removeIf(repository -> activeServices.stream()
+                .noneMatch(service -> service.getRepository().equals(repository)));
+
+        for (GitHubService gitHub : activeServices) {
+            refresh(gitHub);
+        }
+    }
+
+    private void refresh(GitHubService gitHub) {
+        String repository = gitHub.getRepository().fullName();
+        RepositorySnapshots snapshots = snapshots(gitHub);
+
+        if (!rateLimitBudget.allows(Priority.BACKGROUND)) {
+            LOG.infof("Deferring the refresh of repository %s as the GitHub API budget is running low", repository);
+            return;
+        }
+
+        try {
+            await(refreshMilestones(gitHub, Priority.BACKGROUND));
+        } catch (Exception e) {
+            LOG.errorf(e, "Unable to refresh the milestones of repository %s, keeping the previous snapshot", repository);
+        }
+
+        Instant idleLimit = Instant.now().minus(idleTimeout);
+        for (Milestone milestone : new ArrayList<>(snapshots.lastAccesses.keySet())) {
+            Instant lastAccess = snapshots.lastAccesses.get(milestone);
+            if (lastAccess == null || lastAccess.isBefore(idleLimit)) {
+                snapshots.lastAccesses.remove(milestone);
+                snapshots.branchSnapshots.remove(milestone);
+                continue;
+            }
+
+            if (!rateLimitBudget.allows(Priority.BACKGROUND)) {
+                LOG.infof("Deferring the refresh of milestone %s as the GitHub API budget is running low",
+                        milestone.title());
+                continue;
+            }
+
+            try {
+                await(refreshBranch(gitHub, milestone, Priority.BACKGROUND));
+            } catch (Exception e) {
+                LOG.errorf(e, "Unable to refresh the pull requests for milestone %s, keeping the previous snapshot",
+                        milestone.title());
+            }
+        }
+
+        Instant lastMatrixAccess = snapshots.matrixLastAccess;
+        if (lastMatrixAccess == null || lastMatrixAccess.isBefore(idleLimit)) {
+            snapshots.matrixSnapshot = null;
+        } else if (!rateLimitBudget.allows(Priority.BACKGROUND)) {
+            LOG.infof("Deferring the refresh of the backports matrix of repository %s as the GitHub API budget is running low",
+                    repository);
+        } else {
+            try {
+                await(refreshMatrix(gitHub, Priority.BACKGROUND));
+            } catch (Exception e) {
+                LOG.errorf(e, "Unable to refresh the backports matrix of repository %s, keeping the previous snapshot",
+                        repository);
+            }
+        }
+    }
+
+    /**
+     * The first failure fails the whole refresh and we give up after the configured timeout.
+     */
+    private <T> Uni<T> withTimeout(Uni<T> queries) {
+        return queries.ifNoItem().after(gitHubTimeout)
+                .failWith(() -> new IOException("GitHub queries did not complete in " + gitHubTimeout));
+    }
+
+    /**
+     * Waits for a refresh, only for the scheduled refreshes which run on a worker thread.
+     */
+    private static <T> T await(Uni<T> refresh) throws IOException {
+        try {
+            return refresh.await().indefinitely();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class RepositorySnapshots {
+
+        private volatile MilestonesSnapshot milestonesSnapshot;
+
+        private final Map<Milestone, BranchSnapshot> branchSnapshots = new ConcurrentHashMap<>();
+
+        private final Map<Milestone, Instant> lastAccesses = new ConcurrentHashMap<>();
+
+        private volatile MatrixSnapshot matrixSnapshot;
+
+        private volatile Instant matrixLastAccess;
+    }
+
+    public record MilestonesSnapshot(Collection<Milestone> milestones, Instant refreshedAt) {
+    }
+
+    public record BranchSnapshot(Collection<PullRequest> pullRequestsToBackport,
+            Collection<PullRequest> openPullRequestsTargetingBranch,
+            Collection<PullRequest> mergedPullRequestsTargetingBranchWithNoMilestone,
+            Instant refreshedAt) {
+    }
+
+    /**
+     * The pull requests to backport of all the backport labels, each label being a column of the matrix.
+     */
+    public record MatrixSnapshot(List<LabelPartition> partitions, Collection<PullRequest> pullRequests, Instant refreshedAt) {
+    }
+
+    /**
+     * The pull requests having a given backport label and the branches using this label, no branch meaning the label is the
+     * default one.
+     */
+    public record LabelPartition(String label, List<String> branches, Collection<PullRequest> pullRequests,
+            String pullRequestsUrl) {
+    }
+}
@@ -1,117 +1,197 @@
 package io.quarkus.backports;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 
 import jakarta.inject.Inject;
-import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
 import jakarta.ws.rs.core.UriBuilder;
 
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
 
+import io.quarkus.backports.BackportsRefresher.MatrixSnapshot;
+import io.quarkus.backports.graphql.RateLimitExceededException;
 import io.quarkus.backports.model.Commit;
 import io.quarkus.backports.model.Milestone;
 import io.quarkus.backports.model.ProjectV2;
-import io.quarkus.backports.model.ProjectV2Field;
 import io.quarkus.backports.model.PullRequest;
-import io.quarkus.cache.CacheInvalidateAll;
+import io.quarkus.backports.model.Repository;
 import io.quarkus.logging.Log;
 import io.quarkus.qute.CheckedTemplate;
 import io.quarkus.qute.TemplateExtension;
 import io.quarkus.qute.TemplateInstance;
 import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Uni;
 
+/**
+ * The pages are served from the snapshots of {@link BackportsRefresher} without blocking the event loop, only the actions
+ * updating the pull requests and the project boards are still blocking.
+ */
 @Path("/")
 public class BackportsResource {
 
-    @Inject
-    GitHubService gitHub;
+    private static final String REPOSITORY_PATH = "/repositories/{owner}/{name}";
 
-    @ConfigProperty(name = "backports.repository")
-    String repository;
+    @Inject
+    GitHubServices gitHubServices;
 
-    @ConfigProperty(name = "backports.label")
-    String label;
+    @Inject
+    BackportsRefresher refresher;
 
     @CheckedTemplate
     public static class Templates {
-        public static native TemplateInstance index(String repository, Collection<Milestone> milestones);
+        public static native TemplateInstance index(String repository, Collection<Repository> repositories,
+                Collection<Milestone> milestones, Instant refreshedAt);
 
-        public static native TemplateInstance backports(Milestone milestone, Collection<PullRequest> pullRequestsToBackport,
+        public static native TemplateInstance backports(String repository, Milestone milestone,
+                Collection<PullRequest> pullRequestsToBackport,
                 Collection<PullRequest> openPullRequestsTargetingBranch,
-                Collection<PullRequest> mergedPullRequestsTargetingBranchWithNoMilestone,
+                Collection<PullRequest> mergedPullRequestsTargetingBranchWithNoMilestone, String backportLabel,
                 String pullRequestsForBackportLabelUrl, String openPullRequestsTargetingBranchUrl,
-                String mergedPullRequestsWithNoMilestoneUrl);
+                String mergedPullRequestsWithNoMilestoneUrl, Instant refreshedAt, String refreshUrl);
 
-        public static native TemplateInstance createStatusOptionForMilestone(ProjectV2 projectV2, Milestone milestone,
-                String statusFieldSettingsUrl, String refreshStatusFieldUrl);
+        public static native TemplateInstance createStatusOptionForMilestone(String repository, ProjectV2 projectV2,
+                Milestone milestone, String statusFieldSettingsUrl, String refreshStatusFieldUrl);
+
+        public static native TemplateInstance matrix(String repository, MatrixSnapshot snapshot);
     }
 
     @GET
+    public Response root() {
+        return Response.temporaryRedirect(repositoryUri(gitHubServices.getDefaultRepository(), "/").build()).build();
+    }
+
+    @GET
+    @Path(REPOSITORY_PATH + "/")
     @Produces(MediaType.TEXT_HTML)
-    @CacheInvalidateAll(cacheName = CacheNames.MILESTONES_CACHE_NAME)
-    @Blocking
-    public TemplateInstance index() throws IOException {
-        return Templates.index(repository, gitHub.getOpenMilestones());
+    public Uni<TemplateInstance> index(@RestPath String owner, @RestPath String name) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> refresher.getMilestonesSnapshot(gitHub)
+                        .map(snapshot -> Templates.index(gitHub.getRepository().fullName(),
+                                gitHubServices.getRepositories(), snapshot.milestones(), snapshot.refreshedAt())));
+    }
+
+    @GET
+    @Path(REPOSITORY_PATH + "/refresh")
+    public Uni<Response> refresh(@RestPath String owner, @RestPath String name) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> refresher.refreshMilestones(gitHub)
+                        .map(snapshot -> Response.temporaryRedirect(repositoryUri(gitHub.getRepository(), "/").build())
+                                .build()));
     }
 
     @GET
-    @Path("/backports/{milestone}/")
+    @Path(REPOSITORY_PATH + "/matrix")
     @Produces(MediaType.TEXT_HTML)
-    @CacheInvalidateAll(cacheName = CacheNames.PULL_REQUESTS_TO_BACKPORT_CACHE_NAME)
-    @Blocking
-    public TemplateInstance backports(@NotNull(message = "Invalid Milestone") @RestPath final Milestone milestone)
-            throws IOException {
-        gitHub.clearPullRequestCache();
-
-        ProjectV2 projectV2 = gitHub.prepareRequirements(milestone);
-
-        if (gitHub.isMilestonePresentInStatusField(projectV2.id, milestone)) {
-            return Templates.backports(milestone, gitHub.getBackportCandidatesPullRequests(),
-                    gitHub.getOpenPullRequestsTargetingBranch(milestone),
-                    gitHub.getMergedPullRequestsTargetingBranchWithNoMilestone(milestone),
-                    gitHub.getPullRequestsForBackportLabelUrl(),
-                    gitHub.getOpenPullRequestsTargetingBranchUrl(milestone),
-                    gitHub.getMergedPullRequestsWithNoMilestoneUrl(milestone));
-        } else {
-            return Templates.createStatusOptionForMilestone(projectV2, milestone,
-                    gitHub.getStatusFieldSettingsUrl(projectV2.number),
-                    UriBuilder.fromPath("/backports/{milestone}/refresh-status-field/{projectId}")
-                            .resolveTemplate("milestone", milestone.title()).resolveTemplate("projectId", projectV2.id).build()
-                            .toString());
-        }
+    public Uni<TemplateInstance> matrix(@RestPath String owner, @RestPath String name) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> refresher.getMatrixSnapshot(gitHub)
+                        .map(snapshot -> Templates.matrix(gitHub.getRepository().fullName(), snapshot)));
+    }
+
+    @GET
+    @Path(REPOSITORY_PATH + "/matrix/refresh")
+    public Uni<Response> matrixRefresh(@RestPath String owner, @RestPath String name) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> refresher.refreshMatrix(gitHub)
+                        .map(snapshot -> Response.temporaryRedirect(repositoryUri(gitHub.getRepository(), "/matrix").build())
+                                .build()));
     }
 
     @GET
-    @Path("/backports/{milestone}/refresh-status-field/{projectId}")
+    @Path(REPOSITORY_PATH + "/backports/{milestone}/")
     @Produces(MediaType.TEXT_HTML)
-    @Blocking
-    public Response backportsRefreshStatusField(@NotNull(message = "Invalid Milestone") @RestPath final Milestone milestone,
-            @RestPath final String projectId) throws IOException {
-        ProjectV2Field statusField = gitHub.refreshStatusField(projectId);
-        if (!gitHub.isMilestonePresentInStatusField(projectId, milestone)) {
-            throw new IllegalStateException("Make sure you create the appropriate column in the project board and refresh");
-        }
+    public Uni<TemplateInstance> backports(@RestPath String owner, @RestPath String name,
+            @RestPath("milestone") String title) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> getMilestone(gitHub, title)
+                        .chain(milestone -> gitHub.prepareRequirementsAsync(milestone)
+                                .chain(projectV2 -> backports(gitHub, milestone, projectV2))));
+    }
+
+    private Uni<TemplateInstance> backports(GitHubService gitHub, Milestone milestone, ProjectV2 projectV2) {
+        return gitHub.isMilestonePresentInStatusField(projectV2.id, milestone)
+                .chain(milestonePresent -> milestonePresent
+                        ? backports(gitHub, milestone)
+                        : Uni.createFrom().item(Templates.createStatusOptionForMilestone(gitHub.getRepository().fullName(),
+                                projectV2, milestone,
+                                gitHub.getStatusFieldSettingsUrl(projectV2.number),
+                                repositoryUri(gitHub.getRepository(), "/backports/{milestone}/refresh-status-field/{projectId}")
+                                        .resolveTemplate("milestone", milestone.title())
+                                        .resolveTemplate("projectId", projectV2.id).build()
+                                        .toString())));
+    }
 
-        return Response
-                .temporaryRedirect(
-                        UriBuilder.fromPath("/backports/{milestone}/").resolveTemplate("milestone", milestone.title()).build())
-                .build();
+    private Uni<TemplateInstance> backports(GitHubService gitHub, Milestone milestone) {
+        return refresher.getBranchSnapshot(gitHub, milestone)
+                .map(snapshot -> Templates.backports(gitHub.getRepository().fullName(), milestone,
+                        snapshot.pullRequestsToBackport(),
+                        snapshot.openPullRequestsTargetingBranch(),
+                        snapshot.mergedPullRequestsTargetingBranchWithNoMilestone(),
+                        gitHub.getBackportLabel(milestone),
+                        gitHub.getPullRequestsForBackportLabelUrl(milestone),
+                        gitHub.getOpenPullRequestsTargetingBranchUrl(milestone),
+                        gitHub.getMergedPullRequestsWithNoMilestoneUrl(milestone),
+                        snapshot.refreshedAt(),
+                        repositoryUri(gitHub.getRepository(), "/backports/{milestone}/refresh/")
+                                .resolveTemplate("milestone", milestone.title()).build().toString()));
+    }
+
+    @GET
+    @Path(REPOSITORY_PATH + "/backports/{milestone}/refresh/")
+    public Uni<Response> backportsRefresh(@RestPath String owner, @RestPath String name,
+            @RestPath("milestone") String title) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> getMilestone(gitHub, title)
+                        .chain(milestone -> refresher.refreshBranch(gitHub, milestone)
+                                .map(snapshot -> Response
+                                        .temporaryRedirect(repositoryUri(gitHub.getRepository(), "/backports/{milestone}/")
+                                                .resolveTemplate("milestone", milestone.title()).build())
+                                        .build())));
+    }
+
+    @GET
+    @Path(REPOSITORY_PATH + "/backports/{milestone}/refresh-status-field/{projectId}")
+    @Produces(MediaType.TEXT_HTML)
+    public Uni<Response> backportsRefreshStatusField(@RestPath String owner, @RestPath String name,
+            @RestPath("milestone") String title, @RestPath final String projectId) {
+        return gitHubServices.getAsync(owner, name)
+                .chain(gitHub -> getMilestone(gitHub, title)
+                        .chain(milestone -> gitHub.refreshStatusField(projectId)
+                                .chain(() -> gitHub.isMilestonePresentInStatusField(projectId, milestone))
+                                .map(milestonePresent -> {
+                                    if (!milestonePresent) {
+                                        throw new IllegalStateException(
+                                                "Make sure you create the appropriate column in the project board and refresh");
+                                    }
+
+                                    return Response
+                                            .temporaryRedirect(repositoryUri(gitHub.getRepository(), "/backports/{milestone}/")
+                                                    .resolveTemplate("milestone", milestone.title()).build())
+                                            .build();
+                                })));
     }
 
     @GET
     @Produces(MediaType.TEXT_PLAIN)
-    @Path("/backports/{milestone}/backported/{pullRequest}/")
+    @Path(REPOSITORY_PATH + "/backports/{milestone}/backported/{pullRequest}/")
     @Blocking
-    public String markAsBackported(@NotNull(message = "Invalid Milestone") @RestPath Milestone milestone,
-            @NotNull(message = "Invalid Pull Request") @RestPath PullRequest pullRequest) throws IOException {
+    public String markAsBackported(@RestPath String owner, @RestPath String name, @RestPath("milestone") String title,
+            @RestPath("pullRequest") int number) throws IOException {
+        GitHubService gitHub = gitHubServices.get(owner, name);
+        Milestone milestone = getMilestone(gitHub, title).await().indefinitely();
+        PullRequest pullRequest = getPullRequest(gitHub, number);
         gitHub.markPullRequestAsBackported(pullRequest, milestone);
+        refresher.removePullRequest(gitHub, pullRequest);
         Log.info("Backported PR to " + milestone.title() + ": " + pullRequest.url);
         pullRequest.commits.forEach(commit -> {
             Log.info("    Backported commit: URL=" + commit.url + ", message=" + commit.message);
@@ -121,14 +201,42 @@ public class BackportsResource {
 
     @GET
     @Produces(MediaType.TEXT_PLAIN)
-    @Path("/backports/{milestone}/merged/{pullRequest}/")
+    @Path(REPOSITORY_PATH + "/backports/{milestone}/merged/{pullRequest}/")
     @Blocking
-    public String markAsMerged(@NotNull(message = "Invalid Milestone") @RestPath Milestone milestone,
-            @NotNull(message = "Invalid Pull Request") @RestPath PullRequest pullRequest) throws IOException {
+    public String markAsMerged(@RestPath String owner, @RestPath String name, @RestPath("milestone") String title,
+            @RestPath("pullRequest") int number) throws IOException {
+        GitHubService gitHub = gitHubServices.get(owner, name);
+        Milestone milestone = getMilestone(gitHub, title).await().indefinitely();
+        PullRequest pullRequest = getPullRequest(gitHub, number);
         gitHub.markPullRequestAsMerged(pullRequest, milestone);
+        refresher.removePullRequest(gitHub, pullRequest);
         return "SUCCESS";
     }
 
+    private static Uni<Milestone> getMilestone(GitHubService gitHub, String title) {
+        return gitHub.getOpenMilestone(title)
+                .onItem().ifNull().failWith(() -> new NotFoundException("Invalid Milestone: " + title));
+    }
+
+    private static PullRequest getPullRequest(GitHubService gitHub, int number) throws IOException {
+        PullRequest pullRequest = gitHub.getPullRequest(number);
+        if (pullRequest == null) {
+            throw new NotFoundException("Invalid Pull Request: #" + number);
+        }
+        return pullRequest;
+    }
+
+    private static UriBuilder repositoryUri(Repository repository, String path) {
+        return UriBuilder.fromPath(REPOSITORY_PATH + path)
+                .resolveTemplate("owner", repository.owner())
+                .resolveTemplate("name", repository.name());
+    }
+
+    @ServerExceptionMapper
+    public Response mapRateLimitExceededException(RateLimitExceededException e) {
+        return Response.status(Status.SERVICE_UNAVAILABLE).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+    }
+
     @TemplateExtension
     static class Extensions {
 
@@ -141,5 +249,18 @@ public class BackportsResource {
 
             return message.substring(0, newLine);
         }
+
+        static String age(Instant instant) {
+            long seconds = Duration.between(instant, Instant.now()).toSeconds();
+            if (seconds < 60) {
+                return "just now";
+            }
+            long minutes = seconds / 60;
+            if (minutes < 60) {
+                return minutes + (minutes > 1 ? " minutes ago" : " minute ago");
+            }
+            long hours = minutes / 60;
+            return hours + (hours > 1 ? " hours ago" : " hour ago");
+        }
     }
 }
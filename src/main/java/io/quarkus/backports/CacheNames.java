@@ -1,6 +0,0 @@
-package io.quarkus.backports;
-
-public interface CacheNames {
-    String MILESTONES_CACHE_NAME = "github-cache-ml";
-    String PULL_REQUESTS_TO_BACKPORT_CACHE_NAME = "github-cache-prs-to-backport";
-}
@@ -1,55 +1,70 @@
 package io.quarkus.backports;
 
+import static io.quarkus.backports.graphql.JsonParsers.decodeObject;
+import static io.quarkus.backports.graphql.JsonParsers.decodePath;
+import static io.quarkus.backports.graphql.JsonParsers.onField;
+
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
 
 import org.apache.maven.artifact.versioning.ComparableVersion;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.logging.Logger;
 
-import io.quarkus.backports.graphql.GraphQLClient;
-import io.quarkus.backports.model.Commit;
+import io.quarkus.backports.PullRequestDecoder.NextPage;
+import io.quarkus.backports.PullRequestDecoder.Page;
+import io.quarkus.backports.graphql.GitHubGraphQL;
+import io.quarkus.backports.graphql.GraphQLOperation;
+import io.quarkus.backports.graphql.Priority;
 import io.quarkus.backports.model.Issue;
 import io.quarkus.backports.model.Milestone;
 import io.quarkus.backports.model.ProjectV2;
 import io.quarkus.backports.model.ProjectV2Field;
 import io.quarkus.backports.model.ProjectV2FieldOption;
-import io.quarkus.backports.model.ProjectV2Item;
 import io.quarkus.backports.model.PullRequest;
 import io.quarkus.backports.model.Repository;
-import io.quarkus.backports.model.User;
-import io.quarkus.cache.CacheResult;
 import io.quarkus.qute.CheckedTemplate;
 import io.quarkus.qute.TemplateInstance;
+import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
-@ApplicationScoped
+/**
+ * Backports for a given repository.
+ * <p>
+ * Each repository has its own instance, created by {@link GitHubServices}, so that the caches of a repository are never
+ * shared with another one.
+ * <p>
+ * The pull requests are kept in an immutable {@link PullRequestsSnapshot}, swapped atomically: they are never modified once
+ * published, a change publishes a copy. Each full sync of the pull requests to backport starts a new generation, dropping
+ * the pull requests we don't need anymore.
+ */
 public class GitHubService {
 
     private static final Logger LOG = Logger.getLogger(GitHubService.class);
 
-    private static final String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
     private static final String PROJECT_NAME = "Backports for %s";
     private static final String OPTION_DESCRIPTION = "Backports for %s";
     private static final String STATUS_FIELD = "Status";
@@ -61,25 +76,63 @@ public class GitHubService {
     private static final String MERGED_PULL_REQUESTS_TARGETING_BRANCH_WITH_NO_MILESTONE_LABEL_URL = "https://github.com/%s/issues?q=state%%3Aclosed%%20is%%3Amerged%%20no%%3Amilestone%%20base%%3A%s";
     private static final Pattern BACKPORT_PULL_REQUEST_PATTERN = Pattern
             .compile("^\\[[0-9]+\\.[0-9]+] [0-9]+\\.[0-9]+\\.[0-9]+(\\.[0-9]+)? backport.*");
+    private static final String PULL_REQUESTS_TO_BACKPORT_QUERY = "repo:%s is:pr is:merged label:%s";
+    private static final String PULL_REQUESTS_NO_LONGER_TO_BACKPORT_QUERY = "repo:%s is:pr is:merged %s updated:>=%s";
+    private static final String OPEN_PULL_REQUESTS_TARGETING_BRANCH_QUERY = "repo:%s is:pr is:open base:%s";
+    private static final String MERGED_PULL_REQUESTS_TARGETING_BRANCH_WITH_NO_MILESTONE_QUERY = "repo:%s is:pr is:merged base:%s no:milestone";
     private static final String LABEL_AREA_INFRA = "area/infra";
+    private static final String NO_ALIAS = "";
+    /**
+     * GitHub search index is not updated instantly so we ask for a bit more than what happened since the last sync.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+
+    /**
+     * The HTTP statuses returned when GitHub gives up on a query that takes too long to resolve.
+     */
+    private static final Set<Integer> QUERY_TOO_LARGE_HTTP_STATUSES = Set.of(502, 504);
 
-    @Inject
-    @RestClient
-    GraphQLClient graphQLClient;
+    /**
+     * The GraphQL errors returned for a query that is too large, a smaller query might succeed.
+     */
+    private static final Set<String> QUERY_TOO_LARGE_ERROR_TYPES = Set.of("MAX_NODE_LIMIT_EXCEEDED",
+            "RESOURCE_LIMITS_EXCEEDED", "TIMEOUT");
 
-    @Inject
-    IssueExtractor issueExtractor;
+    private final GitHubGraphQL graphQL;
 
-    private final String token;
+    private final IssueExtractor issueExtractor;
 
     private final Repository repository;
 
+    /**
+     * Backport label of the branches that don't have a label of their own
+     */
     private final String backportLabel;
 
     /**
-     * Necessary for the unset operation
+     * Backport labels of the maintenance branches keyed by minor version
      */
-    private String backportLabelId;
+    private final Map<String, String> branchLabels;
+
+    /**
+     * All the backport labels, the default one first
+     */
+    private final Set<String> backportLabels;
+
+    /**
+     * Maximum number of issues we resolve in a single query
+     */
+    private final int findIssuesBatchSize;
+
+    /**
+     * Necessary for the unset operation, keyed by label name
+     */
+    private final Map<String, String> backportLabelIds = new ConcurrentHashMap<>();
+
+    /**
+     * Last known open milestones
+     */
+    private volatile Collection<Milestone> openMilestones;
 
     /**
      * Cache for ownerId
@@ -92,44 +145,88 @@ public class GitHubService {
     private final Map<Repository, String> repositoryIdCache = new ConcurrentHashMap<>();
 
     /**
-     * Cache for ProjectV2 objects by minor version
+     * Cache for ProjectV2 objects by minor version, the lookup being shared by the callers while it is in progress so that
+     * a project is never created twice
      */
-    private final Map<String, ProjectV2> projectCache = new ConcurrentHashMap<>();
+    private final Map<String, Uni<ProjectV2>> projectCache = new ConcurrentHashMap<>();
 
     /**
-     * Cache for ProjectV2Field objects by minor version
+     * Cache for ProjectV2Field objects by project id
      */
     private final Map<String, ProjectV2Field> statusFieldCache = new ConcurrentHashMap<>();
 
     /**
-     * Cache for pull requests keyed by pull request number.
+     * The current generation of the pull requests we know about, including the last known pull requests to backport.
+     */
+    private final AtomicReference<PullRequestsSnapshot> pullRequests = new AtomicReference<>(PullRequestsSnapshot.EMPTY);
+
+    /**
+     * Maximum time between two full syncs of the pull requests to backport
+     */
+    private final Duration fullSyncInterval;
+
+    /**
+     * Guarded by this, the syncs might overlap
      */
-    private final Map<Integer, PullRequest> pullRequestCache = new ConcurrentHashMap<>();
+    private Instant backportCandidatesSyncedAt;
+
+    private Instant backportCandidatesFullySyncedAt;
 
-    @Inject
-    public GitHubService(
-            @ConfigProperty(name = "backports.token") String token,
-            @ConfigProperty(name = "backports.repository") String repositoryName,
-            @ConfigProperty(name = "backports.label") String backportLabel) {
-        this.token = "Bearer " + token;
-        this.repository = Repository.fromString(repositoryName);
+    GitHubService(GitHubGraphQL graphQL, Repository repository, String backportLabel, List<String> branchLabels,
+            int findIssuesBatchSize, Duration fullSyncInterval) {
+        this.graphQL = graphQL;
+        this.issueExtractor = new IssueExtractor(repository.fullName());
+        this.repository = repository;
         this.backportLabel = backportLabel;
+        this.branchLabels = parseBranchLabels(branchLabels);
+        this.backportLabels = new LinkedHashSet<>();
+        this.backportLabels.add(backportLabel);
+        this.backportLabels.addAll(this.branchLabels.values());
+        this.findIssuesBatchSize = findIssuesBatchSize;
+        this.fullSyncInterval = fullSyncInterval;
     }
 
-    public void clearPullRequestCache() {
-        pullRequestCache.clear();
+    public Repository getRepository() {
+        return repository;
     }
 
-    public PullRequest getPullRequest(Integer number) {
-        PullRequest pullRequest = pullRequestCache.get(number);
-        if (pullRequest == null) {
-            throw new IllegalArgumentException("Something is wrong: we could not find pull request in the cache: #" + number);
+    /**
+     * Returns the pull request from the current generation, fetching it if it is not part of it, e.g. because a full sync
+     * dropped it since the page was rendered.
+     *
+     * @return the pull request or null if it doesn't exist
+     */
+    public PullRequest getPullRequest(int number) throws IOException {
+        PullRequest pullRequest = pullRequests.get().get(number);
+        if (pullRequest != null) {
+            return pullRequest;
         }
-        return pullRequest;
+        LOG.debugf("Pull request #%d is not known anymore, fetching it", number);
+        return fetchPullRequest(number);
     }
 
-    public String getPullRequestsForBackportLabelUrl() {
-        return String.format(PULL_REQUESTS_FOR_BACKPORT_LABEL_URL, repository.fullName(), backportLabel);
+    /**
+     * Parses the {@code backports.branch-labels} entries, each of them being {@code <minor version>:<label>}.
+     */
+    static Map<String, String> parseBranchLabels(List<String> branchLabels) {
+        Map<String, String> labelsByBranch = new LinkedHashMap<>();
+        for (String branchLabel : branchLabels) {
+            int separator = branchLabel.indexOf(':');
+            if (separator <= 0 || separator == branchLabel.length() - 1) {
+                throw new IllegalArgumentException(
+                        "Invalid branch label " + branchLabel + ". Branch labels should be <minor version>:<label>");
+            }
+            labelsByBranch.put(branchLabel.substring(0, separator).trim(), branchLabel.substring(separator + 1).trim());
+        }
+        return labelsByBranch;
+    }
+
+    public String getPullRequestsForBackportLabelUrl(Milestone milestone) {
+        return getPullRequestsForBackportLabelUrl(getBackportLabel(milestone));
+    }
+
+    public String getPullRequestsForBackportLabelUrl(String label) {
+        return String.format(PULL_REQUESTS_FOR_BACKPORT_LABEL_URL, repository.fullName(), label);
     }
 
     public String getOpenPullRequestsTargetingBranchUrl(Milestone milestone) {
@@ -141,17 +238,54 @@ public class GitHubService {
                 milestone.minorVersion());
     }
 
-    public ProjectV2 prepareRequirements(Milestone newMilestone) {
-        String ownerId = getOwnerId(repository.owner());
-        String repositoryId = getRepositoryId(repository);
-        ProjectV2 projectV2 = getOrCreateProjectV2(ownerId, repositoryId, repository, newMilestone.minorVersion());
-        return projectV2;
+    /**
+     * Returns the project of the branch of the milestone, creating it if needed.
+     * <p>
+     * The project is only looked up, and created if needed, the first time: it is served from the cache afterwards.
+     */
+    public Uni<ProjectV2> prepareRequirementsAsync(Milestone newMilestone) {
+        return getOrCreateProjectV2(newMilestone.minorVersion());
     }
 
-    @PostConstruct
-    void fetchBackportLabelID() {
-        final String query = Templates.findBackportLabelId(repository.owner(), repository.name(), backportLabel).render();
-        final JsonObject response = graphQLClient.graphql(token, new JsonObject().put("query", query));
+    void fetchBackportLabelIds() {
+        for (String label : backportLabels) {
+            backportLabelIds.put(label, fetchBackportLabelId(label));
+        }
+    }
+
+    /**
+     * Fetches the ids of the backport labels again after a label event.
+     * <p>
+     * Contrary to {@link #fetchBackportLabelIds()}, a failure is not fatal: the label is dropped if it doesn't exist
+     * anymore, we keep the id we know otherwise.
+     */
+    void refreshBackportLabelIds() {
+        for (String label : backportLabels) {
+            try {
+                backportLabelIds.put(label, fetchBackportLabelId(label));
+            } catch (IllegalStateException e) {
+                LOG.warnf("Backport label %s could not be found in repository %s anymore", label, repository.fullName());
+                backportLabelIds.remove(label);
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Unable to refresh the id of backport label %s, keeping the previous one", label);
+            }
+        }
+    }
+
+    /**
+     * Forgets a backport label that has been deleted, the pull requests can't be marked as backported for its branches
+     * until it is created again.
+     */
+    void onBackportLabelDeleted(String label) {
+        LOG.warnf("Backport label %s has been deleted from repository %s", label, repository.fullName());
+        backportLabelIds.remove(label);
+    }
+
+    private String fetchBackportLabelId(String label) {
+        final JsonObject response = graphQL.graphql(GraphQLOperation.compile(Templates.findBackportLabelId()), new JsonObject()
+                .put("owner", repository.owner())
+                .put("name", repository.name())
+                .put("label", label));
         // Any errors?
         if (response.getJsonArray("errors") != null) {
             throw new RuntimeException(response.toString());
@@ -162,20 +296,50 @@ public class GitHubService {
 
         if (backportLabelFromResponse == null) {
             throw new IllegalStateException(
-                    "Backport label " + backportLabel + " could not be found in repository " + repository);
+                    "Backport label " + label + " could not be found in repository " + repository);
         }
 
-        this.backportLabelId = backportLabelFromResponse.getString("id");
+        return backportLabelFromResponse.getString("id");
     }
 
-    @CacheResult(cacheName = CacheNames.MILESTONES_CACHE_NAME)
-    public Collection<Milestone> getOpenMilestones() throws IOException {
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.listMilestones(repository.owner(), repository.name()).render()));
-        // Any errors?
-        if (response.getJsonArray("errors") != null) {
-            throw new IOException(response.toString());
+    /**
+     * Returns the last known open milestones, they are only fetched the first time.
+     */
+    public Uni<Collection<Milestone>> getOpenMilestones() {
+        Collection<Milestone> milestones = openMilestones;
+        if (milestones != null) {
+            return Uni.createFrom().item(milestones);
         }
+        return fetchOpenMilestones(Priority.INTERACTIVE);
+    }
+
+    /**
+     * @return the open milestone with this title or null if there is none
+     */
+    public Uni<Milestone> getOpenMilestone(String title) {
+        return getOpenMilestones().map(milestones -> milestones.stream()
+                .filter(milestone -> milestone.title().equals(title))
+                .findFirst()
+                .orElse(null));
+    }
+
+    /**
+     * Fetches the open milestones from GitHub, bypassing the cache.
+     */
+    public Uni<Collection<Milestone>> fetchOpenMilestones(Priority priority) {
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.listMilestones()), new JsonObject()
+                .put("owner", repository.owner())
+                .put("name", repository.name()), priority)
+                .onItem().transformToUni(response -> {
+                    // Any errors?
+                    if (response.getJsonArray("errors") != null) {
+                        return Uni.createFrom().<Collection<Milestone>> failure(new IOException(response.toString()));
+                    }
+                    return Uni.createFrom().item(updateOpenMilestones(response));
+                });
+    }
+
+    private Collection<Milestone> updateOpenMilestones(JsonObject response) {
         List<Milestone> milestoneList = new ArrayList<>();
         JsonArray milestones = response.getJsonObject("data")
                 .getJsonObject("repository")
@@ -195,139 +359,488 @@ public class GitHubService {
 
         milestoneList.sort(Comparator.comparing(m -> new ComparableVersion(m.title()), Comparator.reverseOrder()));
 
+        // make sure the milestones used to resolve the path parameters are consistent with what we display
+        openMilestones = milestoneList;
         return milestoneList;
     }
 
-    @CacheResult(cacheName = CacheNames.PULL_REQUESTS_TO_BACKPORT_CACHE_NAME)
-    public Collection<PullRequest> getBackportCandidatesPullRequests() throws IOException {
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.listPullRequestsToBackport(repository.fullName(), backportLabel).render()));
-        // Any errors?
-        if (response.getJsonArray("errors") != null) {
-            throw new IOException(response.toString());
-        }
+    /**
+     * Returns the pull requests to backport, whatever their backport label.
+     * <p>
+     * The pull requests of all the backport labels are fetched by the same searches, they are partitioned afterwards.
+     * We keep the last known candidates around and only ask GitHub for the pull requests updated since the previous sync,
+     * a full sync being performed every {@code backports.full-sync-interval}.
+     *
+     * @param priority the priority of the queries, {@link Priority#BACKGROUND} for the scheduled refreshes
+     */
+    public Uni<Collection<PullRequest>> getBackportCandidatesPullRequests(Priority priority) {
+        return Uni.createFrom().<PullRequestsSnapshot> deferred(() -> {
+            Instant syncStartedAt = Instant.now();
+            long fetchedAt = pullRequests.get().version();
+            String labels = String.join(",", backportLabels);
+
+            Instant syncedAt;
+            boolean fullSync;
+            synchronized (this) {
+                syncedAt = backportCandidatesSyncedAt;
+                fullSync = syncedAt == null
+                        || backportCandidatesFullySyncedAt.plus(fullSyncInterval).isBefore(syncStartedAt);
+            }
+
+            if (fullSync) {
+                return searchPullRequests(Templates.listPullRequestsToBackport(),
+                        String.format(PULL_REQUESTS_TO_BACKPORT_QUERY, repository.fullName(), labels), priority)
+                        .map(candidates -> {
+                            PullRequestsSnapshot snapshot = pullRequests.updateAndGet(current -> current
+                                    .withBackportCandidates(candidates, fetchedAt, this::isBackportCandidate));
+                            onBackportCandidatesSynced(syncStartedAt, true);
+                            return snapshot;
+                        });
+            }
 
-        return extractPullRequestsFromResponse(response);
+            String updatedSince = DateTimeFormatter.ISO_INSTANT
+                    .format(syncedAt.minus(SYNC_OVERLAP).truncatedTo(ChronoUnit.SECONDS));
+            String excludedLabels = backportLabels.stream().map(label -> "-label:" + label).collect(Collectors.joining(" "));
+            return Uni.combine().all().unis(
+                    // the pull requests updated since the last sync that still have a backport label...
+                    searchPullRequests(Templates.listPullRequestsToBackport(),
+                            String.format(PULL_REQUESTS_TO_BACKPORT_QUERY, repository.fullName(), labels)
+                                    + " updated:>=" + updatedSince,
+                            priority),
+                    // ... and the ones that lost all of them
+                    searchPullRequestNumbers(Templates.listPullRequestsNoLongerToBackport(),
+                            String.format(PULL_REQUESTS_NO_LONGER_TO_BACKPORT_QUERY, repository.fullName(), excludedLabels,
+                                    updatedSince),
+                            priority))
+                    .asTuple()
+                    .map(changes -> {
+                        PullRequestsSnapshot snapshot = pullRequests.updateAndGet(current -> current
+                                .withBackportCandidatesChanges(changes.getItem1(), changes.getItem2(), fetchedAt));
+                        LOG.debugf("Incremental sync of the pull requests to backport updated since %s", updatedSince);
+                        onBackportCandidatesSynced(syncStartedAt, false);
+                        return snapshot;
+                    });
+        }).map(snapshot -> new TreeSet<>(snapshot.backportCandidates()));
     }
 
-    public Collection<PullRequest> getOpenPullRequestsTargetingBranch(Milestone milestone) throws IOException {
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query",
-                        Templates.listOpenPullRequestsTargetingBranch(repository.fullName(), milestone.minorVersion())
-                                .render()));
-        // Any errors?
-        if (response.getJsonArray("errors") != null) {
-            throw new IOException(response.toString());
+    /**
+     * A page refresh might overlap with the scheduled refresh, the sync that started last wins.
+     */
+    private synchronized void onBackportCandidatesSynced(Instant syncStartedAt, boolean fullSync) {
+        if (fullSync && (backportCandidatesFullySyncedAt == null || syncStartedAt.isAfter(backportCandidatesFullySyncedAt))) {
+            backportCandidatesFullySyncedAt = syncStartedAt;
         }
+        if (backportCandidatesSyncedAt == null || syncStartedAt.isAfter(backportCandidatesSyncedAt)) {
+            backportCandidatesSyncedAt = syncStartedAt;
+        }
+    }
 
-        return extractPullRequestsFromResponse(response);
+    /**
+     * Returns the pull requests to backport to the branch of the milestone.
+     */
+    public Uni<Collection<PullRequest>> getBackportCandidatesPullRequests(Milestone milestone, Priority priority) {
+        return getBackportCandidatesPullRequests(priority)
+                .map(pullRequests -> withLabel(pullRequests, getBackportLabel(milestone)));
     }
 
-    public Collection<PullRequest> getMergedPullRequestsTargetingBranchWithNoMilestone(Milestone milestone) throws IOException {
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query",
-                        Templates.listMergedPullRequestsTargetingBranchWithNoMilestone(repository.fullName(),
-                                milestone.minorVersion()).render()));
-        // Any errors?
-        if (response.getJsonArray("errors") != null) {
-            throw new IOException(response.toString());
-        }
+    /**
+     * Returns the pull requests to backport partitioned by backport label, a pull request with several backport labels
+     * being part of several partitions.
+     */
+    public Uni<Map<String, Collection<PullRequest>>> getBackportCandidatesPullRequestsByLabel(Priority priority) {
+        return getBackportCandidatesPullRequests(priority).map(this::partitionByLabel);
+    }
 
-        // we will exclude the backport PRs from this list, and all the PRs with area/infra
-        return extractPullRequestsFromResponse(response).stream()
-                .filter(pr -> !pr.labels.contains(LABEL_AREA_INFRA))
-                .filter(pr -> !BACKPORT_PULL_REQUEST_PATTERN.matcher(pr.title).matches() && !pr.isBackport())
-                .toList();
-    }
-
-    private Collection<PullRequest> extractPullRequestsFromResponse(JsonObject response) throws IOException {
-        SimpleDateFormat sdf = new SimpleDateFormat(DATE_PATTERN);
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        Set<PullRequest> prList = new TreeSet<>();
-        JsonArray pullRequests = response.getJsonObject("data")
-                .getJsonObject("search")
-                .getJsonArray("nodes");
-        for (int i = 0; i < pullRequests.size(); i++) {
-            JsonObject pr = pullRequests.getJsonObject(i);
-            List<Commit> commitList;
-            if (pr.getJsonObject("commits") != null) {
-                JsonArray commits = pr.getJsonObject("commits").getJsonArray("nodes");
-                commitList = new ArrayList<>();
-                for (int j = 0; j < commits.size(); j++) {
-                    JsonObject commitNode = commits.getJsonObject(j);
-                    Commit commit = commitNode.getJsonObject("commit").mapTo(Commit.class);
-                    commit.url = commitNode.getString("url");
-                    commitList.add(commit);
-                }
-                // Sort by commit date
-                Collections.sort(commitList);
-            } else {
-                commitList = List.of();
-            }
+    public Uni<Collection<PullRequest>> getOpenPullRequestsTargetingBranch(Milestone milestone, Priority priority) {
+        return searchAndKeepPullRequests(Templates.listOpenPullRequestsTargetingBranch(),
+                String.format(OPEN_PULL_REQUESTS_TARGETING_BRANCH_QUERY, repository.fullName(), milestone.minorVersion()),
+                priority);
+    }
 
-            PullRequest pullRequest = new PullRequest();
-            pullRequest.id = pr.getString("id");
-            pullRequest.number = pr.getInteger("number");
-            try {
-                pullRequest.createdAt = sdf.parse(pr.getString("createdAt"));
-            } catch (ParseException ignore) {
-            }
-            pullRequest.merged = pr.getBoolean("merged");
-            try {
-                if (pr.getString("mergedAt") != null) {
-                    pullRequest.mergedAt = sdf.parse(pr.getString("mergedAt"));
+    public Uni<Collection<PullRequest>> getMergedPullRequestsTargetingBranchWithNoMilestone(Milestone milestone,
+            Priority priority) {
+        return searchAndKeepPullRequests(Templates.listMergedPullRequestsTargetingBranchWithNoMilestone(),
+                String.format(MERGED_PULL_REQUESTS_TARGETING_BRANCH_WITH_NO_MILESTONE_QUERY, repository.fullName(),
+                        milestone.minorVersion()),
+                priority)
+                .map(pullRequests -> pullRequests.stream()
+                        .filter(GitHubService::isMergedWithNoMilestone)
+                        .toList());
+    }
+
+    /**
+     * Whether the pull request should be listed among the merged pull requests with no milestone.
+     * <p>
+     * We exclude the backport PRs from this list, and all the PRs with area/infra.
+     */
+    public static boolean isMergedWithNoMilestone(PullRequest pr) {
+        return pr.merged && pr.milestone == null
+                && !pr.labels.contains(LABEL_AREA_INFRA)
+                && !BACKPORT_PULL_REQUEST_PATTERN.matcher(pr.title).matches() && !pr.isBackport();
+    }
+
+    /**
+     * Returns the pull requests to backport to the branch of the milestone we know about without syncing them.
+     */
+    public Collection<PullRequest> getKnownBackportCandidatesPullRequests(Milestone milestone) {
+        return withLabel(pullRequests.get().backportCandidates(), getBackportLabel(milestone));
+    }
+
+    /**
+     * Returns the pull requests to backport partitioned by backport label we know about without syncing them.
+     */
+    public Map<String, Collection<PullRequest>> getKnownBackportCandidatesPullRequestsByLabel() {
+        return partitionByLabel(pullRequests.get().backportCandidates());
+    }
+
+    private static Collection<PullRequest> withLabel(Collection<PullRequest> pullRequests, String label) {
+        return pullRequests.stream()
+                .filter(pullRequest -> pullRequest.labels.contains(label))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private Map<String, Collection<PullRequest>> partitionByLabel(Collection<PullRequest> pullRequests) {
+        Map<String, Collection<PullRequest>> pullRequestsByLabel = new LinkedHashMap<>();
+        for (String label : backportLabels) {
+            pullRequestsByLabel.put(label, new TreeSet<>());
+        }
+        for (PullRequest pullRequest : pullRequests) {
+            for (String label : pullRequest.labels) {
+                Collection<PullRequest> partition = pullRequestsByLabel.get(label);
+                if (partition != null) {
+                    partition.add(pullRequest);
                 }
-            } catch (ParseException ignore) {
             }
-            pullRequest.title = pr.getString("title");
-            pullRequest.url = pr.getString("url");
-            pullRequest.body = pr.getString("body");
-            pullRequest.author = pr.getJsonObject("author").mapTo(User.class);
-            pullRequest.commits = commitList;
-            pullRequest.headRefName = pr.getString("headRefName");
-            pullRequest.baseRefName = pr.getString("baseRefName");
-
-            // Milestone
-            JsonObject milestoneJson = pr.getJsonObject("milestone");
-            if (milestoneJson != null) {
-                pullRequest.milestone = milestoneJson.mapTo(Milestone.class);
+        }
+        return pullRequestsByLabel;
+    }
+
+    private boolean isBackportCandidate(PullRequest pullRequest) {
+        return pullRequest.merged && pullRequest.labels.stream().anyMatch(backportLabels::contains);
+    }
+
+    /**
+     * Fetches a single pull request, with its commits and linked issues, and adds it to the current generation.
+     *
+     * @return the pull request or null if it doesn't exist
+     */
+    public PullRequest fetchPullRequest(int number) throws IOException {
+        long fetchedAt = pullRequests.get().version();
+        PullRequest pullRequest = await(queryPullRequest(number));
+        if (pullRequest == null) {
+            return null;
+        }
+        // a more recent version might have been published in the meantime
+        return pullRequests.updateAndGet(current -> current.withFetched(List.of(pullRequest), fetchedAt)).get(number);
+    }
+
+    /**
+     * The pull requests are only fetched one by one for the users, or the webhooks: the queries are interactive.
+     */
+    private Uni<PullRequest> queryPullRequest(int number) {
+        return Uni.createFrom().deferred(() -> {
+            PullRequestDecoder decoder = new PullRequestDecoder();
+            PullRequest[] pullRequestHolder = new PullRequest[1];
+            return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.getPullRequest()), new JsonObject()
+                    .put("owner", repository.owner())
+                    .put("name", repository.name())
+                    .put("number", number),
+                    Priority.INTERACTIVE,
+                    onField("repository",
+                            parser -> decodePath(parser, p -> pullRequestHolder[0] = decoder.decodePullRequest(p),
+                                    "pullRequest")))
+                    .chain(errors -> {
+                        // Any errors?
+                        if (errors != null) {
+                            return Uni.createFrom().<PullRequest> failure(new IOException(errors.toString()));
+                        }
+
+                        PullRequest pullRequest = pullRequestHolder[0];
+                        if (pullRequest == null) {
+                            return Uni.createFrom().<PullRequest> nullItem();
+                        }
+
+                        return fetchNextPages(decoder, Priority.INTERACTIVE)
+                                .chain(() -> linkIssues(Map.of(pullRequest, getUnlinkedIssueNumbers(pullRequest)),
+                                        Priority.INTERACTIVE))
+                                .replaceWith(pullRequest);
+                    });
+        });
+    }
+
+    /**
+     * Applies a {@code pull_request} webhook event.
+     * <p>
+     * The pull requests we don't know about are ignored unless they have a backport label or target a branch somebody is
+     * looking at: most of them are pull requests targeting the main branch. The changes are applied from the payload to the
+     * pull requests we know about, we only fetch a pull request when it is new to us, when it has new commits or when its
+     * body has been edited as the linked issues might have changed.
+     *
+     * @param changes the {@code changes} object of the event, null if there is none
+     * @param targetingTrackedBranch whether the pull request targets a branch somebody is looking at
+     * @return the changed pull request or null if the event has been ignored
+     */
+    public PullRequest onPullRequestEvent(String action, JsonObject pullRequestPayload, JsonObject changes,
+            boolean targetingTrackedBranch) throws IOException {
+        int number = pullRequestPayload.getInteger("number");
+        PullRequest knownPullRequest = pullRequests.get().get(number);
+
+        PullRequest pullRequest;
+        if (knownPullRequest == null) {
+            if (!targetingTrackedBranch && !hasBackportLabel(pullRequestPayload)) {
+                return null;
             }
+            pullRequest = await(queryPullRequest(number));
+        } else if ("synchronize".equals(action)
+                || ("edited".equals(action) && changes != null && changes.containsKey("body"))) {
+            pullRequest = await(queryPullRequest(number));
+        } else {
+            pullRequest = GitHubWebhooks.updatePullRequest(knownPullRequest, pullRequestPayload);
+        }
+        if (pullRequest == null) {
+            return null;
+        }
 
-            // Labels
-            pullRequest.labels = pr.getJsonObject("labels").getJsonArray("nodes").stream()
-                    .map(JsonObject.class::cast)
-                    .map(json -> json.getString("name"))
-                    .collect(Collectors.toSet());
-            // Linked issues are available through CONNECTED and DISCONNECTED events
-            // As these events can happen multiple times, we need to retain only events in an odd number
-            // (even means the issue was connected and disconnected)
-            Set<Issue> issues = new TreeSet<>();
-            if (pr.getJsonObject("timelineItems") != null) {
-                final JsonArray timelineItems = pr.getJsonObject("timelineItems").getJsonArray("nodes");
-                for (int j = 0; j < timelineItems.size(); j++) {
-                    Issue issue = timelineItems.getJsonObject(j).getJsonObject("subject").mapTo(Issue.class);
-                    // Add the issue to the Set. If it already exists, remove
-                    if (!issues.add(issue)) {
-                        issues.remove(issue);
+        pullRequests.updateAndGet(current -> current.withChanged(List.of(pullRequest), this::isBackportCandidate));
+        return pullRequest;
+    }
+
+    /**
+     * Applies an {@code issues} webhook event to the issues linked to the pull requests we know about.
+     */
+    public void onIssueEvent(JsonObject issuePayload) {
+        int number = issuePayload.getInteger("number");
+        pullRequests.updateAndGet(current -> {
+            List<PullRequest> changed = new ArrayList<>();
+            for (PullRequest pullRequest : current.pullRequests()) {
+                if (pullRequest.linkedIssues.stream().noneMatch(issue -> issue.number == number)) {
+                    continue;
+                }
+                PullRequest changedPullRequest = pullRequest.copy();
+                changedPullRequest.linkedIssues = new TreeSet<>();
+                for (Issue issue : pullRequest.linkedIssues) {
+                    if (issue.number == number) {
+                        issue = issue.copy();
+                        issue.title = issuePayload.getString("title");
+                        issue.body = issuePayload.getString("body");
                     }
+                    changedPullRequest.linkedIssues.add(issue);
                 }
+                changed.add(changedPullRequest);
+            }
+            return current.withChanged(changed, this::isBackportCandidate);
+        });
+    }
+
+    /**
+     * Returns the label marking the pull requests to backport to the branch of the milestone.
+     */
+    public String getBackportLabel(Milestone milestone) {
+        return branchLabels.getOrDefault(milestone.minorVersion(), backportLabel);
+    }
+
+    private boolean hasBackportLabel(JsonObject pullRequestPayload) {
+        JsonArray labels = pullRequestPayload.getJsonArray("labels", new JsonArray());
+        for (int i = 0; i < labels.size(); i++) {
+            if (isBackportLabel(labels.getJsonObject(i).getString("name"))) {
+                return true;
             }
-            // Extract missing issue numbers from the PR body
-            Set<Integer> issueNumbers = issueExtractor.extractIssueNumbers(pullRequest.body)
-                    .stream()
-                    .filter(issueNumber -> issues.stream().noneMatch(issue -> issue.number == issueNumber))
-                    .collect(Collectors.toSet());
-            // Add missing issues to the linked issues list
-            issues.addAll(findIssues(issueNumbers));
-            pullRequest.linkedIssues = issues;
-            prList.add(pullRequest);
         }
+        return false;
+    }
+
+    public boolean isBackportLabel(String label) {
+        return backportLabels.contains(label);
+    }
+
+    /**
+     * @return the branches having their own backport label for each backport label, the default label first
+     */
+    public Map<String, List<String>> getBranchesByBackportLabel() {
+        Map<String, List<String>> branchesByLabel = new LinkedHashMap<>();
+        for (String label : backportLabels) {
+            branchesByLabel.put(label, new ArrayList<>());
+        }
+        branchLabels.forEach((branch, label) -> branchesByLabel.get(label).add(branch));
+        return branchesByLabel;
+    }
+
+    /**
+     * Runs a pull request search and adds the results to the current generation.
+     */
+    private Uni<Collection<PullRequest>> searchAndKeepPullRequests(TemplateInstance searchTemplate, String searchQuery,
+            Priority priority) {
+        return Uni.createFrom().deferred(() -> {
+            long fetchedAt = pullRequests.get().version();
+            return searchPullRequests(searchTemplate, searchQuery, priority)
+                    .invoke(results -> pullRequests.updateAndGet(current -> current.withFetched(results, fetchedAt)));
+        });
+    }
+
+    /**
+     * Runs a pull request search and follows the cursors until all the pages have been consumed.
+     * <p>
+     * Each page is converted to {@link PullRequest}s as soon as it is received so we never keep more than one page of raw
+     * JSON around, whatever the number of results. The pages are fetched one after the other, without blocking any thread
+     * in between.
+     */
+    private Uni<Collection<PullRequest>> searchPullRequests(TemplateInstance searchTemplate, String searchQuery,
+            Priority priority) {
+        GraphQLOperation operation = GraphQLOperation.compile(searchTemplate);
+        return Uni.createFrom().deferred(() -> {
+            PullRequestDecoder decoder = new PullRequestDecoder();
+            Set<PullRequest> prList = new TreeSet<>();
+            Map<PullRequest, Set<Integer>> unlinkedIssueNumbers = new HashMap<>();
+            return searchPullRequests(operation, searchQuery, null, priority, decoder, prList, unlinkedIssueNumbers)
+                    // Resolve the issues referenced in the bodies for the whole result set at once
+                    .chain(() -> linkIssues(unlinkedIssueNumbers, priority))
+                    .replaceWith(prList);
+        });
+    }
+
+    /**
+     * Fetches the page after the cursor, then the next ones.
+     */
+    private Uni<Void> searchPullRequests(GraphQLOperation operation, String searchQuery, String cursor, Priority priority,
+            PullRequestDecoder decoder, Set<PullRequest> prList, Map<PullRequest, Set<Integer>> unlinkedIssueNumbers) {
+        List<Page<PullRequest>> pages = new ArrayList<>(1);
+        return graphQL.graphqlAsync(operation, new JsonObject()
+                .put("query", searchQuery)
+                .put("after", cursor),
+                priority,
+                onField("search", parser -> pages.add(decoder.decodeSearch(parser))))
+                .chain(errors -> {
+                    // Any errors?
+                    if (errors != null) {
+                        return Uni.createFrom().<Void> failure(new IOException(errors.toString()));
+                    }
+                    if (pages.isEmpty()) {
+                        return Uni.createFrom().<Void> failure(
+                                new IOException("No search results returned by " + operation.name()));
+                    }
+                    return fetchNextPages(decoder, priority);
+                })
+                .chain(() -> {
+                    for (PullRequest pullRequest : pages.get(0).nodes()) {
+                        prList.add(pullRequest);
+                        unlinkedIssueNumbers.put(pullRequest, getUnlinkedIssueNumbers(pullRequest));
+                    }
+                    String endCursor = pages.get(0).endCursor();
+                    if (endCursor == null) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    return searchPullRequests(operation, searchQuery, endCursor, priority, decoder, prList,
+                            unlinkedIssueNumbers);
+                });
+    }
 
-        for (PullRequest pr : prList) {
-            pullRequestCache.put(pr.number, pr);
+    private Uni<Void> linkIssues(Map<PullRequest, Set<Integer>> unlinkedIssueNumbers, Priority priority) {
+        return findIssues(unlinkedIssueNumbers.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet()), priority)
+                .invoke(issues -> {
+                    for (Map.Entry<PullRequest, Set<Integer>> unlinkedIssueNumbersEntry : unlinkedIssueNumbers.entrySet()) {
+                        for (Integer issueNumber : unlinkedIssueNumbersEntry.getValue()) {
+                            Issue issue = issues.get(issueNumber);
+                            if (issue != null) {
+                                unlinkedIssueNumbersEntry.getKey().linkedIssues.add(issue);
+                            }
+                        }
+                    }
+                })
+                .replaceWithVoid();
+    }
+
+    /**
+     * Extracts the issue numbers referenced in the PR body that are not already linked to the pull request.
+     */
+    private Set<Integer> getUnlinkedIssueNumbers(PullRequest pullRequest) {
+        return issueExtractor.extractIssueNumbers(pullRequest.body)
+                .stream()
+                .filter(issueNumber -> pullRequest.linkedIssues.stream().noneMatch(issue -> issue.number == issueNumber))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Fetches the pages of the connections nested in the pull requests that didn't fit in the first page.
+     * <p>
+     * The first page comes with the search results, the next ones are fetched for this very pull request, one after the
+     * other.
+     */
+    private Uni<Void> fetchNextPages(PullRequestDecoder decoder, Priority priority) {
+        NextPage nextPage = decoder.pollNextPage();
+        if (nextPage == null) {
+            return Uni.createFrom().voidItem();
         }
 
-        return prList;
+        TemplateInstance nextPageTemplate = switch (nextPage.connection()) {
+            case PullRequestDecoder.COMMITS -> Templates.listPullRequestCommits();
+            case PullRequestDecoder.LABELS -> Templates.listPullRequestLabels();
+            case PullRequestDecoder.TIMELINE_ITEMS -> Templates.listPullRequestTimelineItems();
+            default -> throw new IllegalArgumentException("Unknown pull request connection: " + nextPage.connection());
+        };
+
+        PullRequest pullRequest = nextPage.pullRequest();
+        String connection = nextPage.connection();
+        return graphQL.graphqlAsync(GraphQLOperation.compile(nextPageTemplate), new JsonObject()
+                .put("owner", repository.owner())
+                .put("name", repository.name())
+                .put("number", pullRequest.number)
+                .put("after", nextPage.cursor()),
+                priority,
+                onField("repository", parser -> decodePath(parser,
+                        p -> decoder.decodeConnection(pullRequest, connection, p), "pullRequest", connection)))
+                .chain(errors -> {
+                    // Any errors?
+                    if (errors != null) {
+                        return Uni.createFrom().<Void> failure(new IOException(errors.toString()));
+                    }
+                    return fetchNextPages(decoder, priority);
+                });
+    }
+
+    /**
+     * Runs a lightweight pull request search that only returns the pull request numbers.
+     */
+    private Uni<Set<Integer>> searchPullRequestNumbers(TemplateInstance searchTemplate, String searchQuery,
+            Priority priority) {
+        GraphQLOperation operation = GraphQLOperation.compile(searchTemplate);
+        return Uni.createFrom().deferred(() -> {
+            Set<Integer> numbers = new HashSet<>();
+            return searchPullRequestNumbers(operation, searchQuery, null, priority, numbers).replaceWith(numbers);
+        });
+    }
+
+    private Uni<Void> searchPullRequestNumbers(GraphQLOperation operation, String searchQuery, String cursor,
+            Priority priority, Set<Integer> numbers) {
+        return graphQL.graphqlAsync(operation, new JsonObject()
+                .put("query", searchQuery)
+                .put("after", cursor), priority)
+                .chain(response -> {
+                    // Any errors?
+                    if (response.getJsonArray("errors") != null) {
+                        return Uni.createFrom().<Void> failure(new IOException(response.toString()));
+                    }
+
+                    JsonObject search = response.getJsonObject("data").getJsonObject("search");
+                    JsonArray pullRequests = search.getJsonArray("nodes");
+                    for (int i = 0; i < pullRequests.size(); i++) {
+                        numbers.add(pullRequests.getJsonObject(i).getInteger("number"));
+                    }
+                    String nextCursor = getNextCursor(search);
+                    if (nextCursor == null) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    return searchPullRequestNumbers(operation, searchQuery, nextCursor, priority, numbers);
+                });
+    }
+
+    private static String getNextCursor(JsonObject connection) {
+        JsonObject pageInfo = connection.getJsonObject("pageInfo");
+        if (pageInfo == null || !pageInfo.getBoolean("hasNextPage", false)) {
+            return null;
+        }
+        return pageInfo.getString("endCursor");
     }
 
     public void markPullRequestAsBackported(PullRequest pullRequest, Milestone newMilestone) throws IOException {
@@ -342,49 +855,117 @@ public class GitHubService {
             updatedMilestone = newMilestone;
         }
 
-        // Set Milestone and remove the backport tag
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.updatePullRequest().render())
-                .put("variables", new JsonObject()
-                        .put("inputMilestone", new JsonObject()
-                                .put("pullRequestId", pullRequest.id)
-                                .put("milestoneId", updatedMilestone.id()))
-                        .put("inputLabel", new JsonObject()
-                                .put("labelableId", pullRequest.id)
-                                .put("labelIds", backportLabelId))));
-        // Any errors?
-        if (response.getJsonArray("errors") != null) {
+        // A label that has been deleted has been removed from all the pull requests and issues
+        String label = getBackportLabel(newMilestone);
+        String labelId = backportLabelIds.get(label);
+        if (labelId == null) {
+            LOG.warnf("Backport label %s does not exist anymore in repository %s, not removing it from pull request #%d",
+                    label, repository.fullName(), pullRequest.number);
+        }
+        // Resolve the project column first as we set it in the same round trips, failing to do so doesn't prevent the
+        // pull request from being marked as backported
+        ProjectColumn projectColumn = getProjectColumn(newMilestone);
+
+        // Set Milestone, remove the backport tag and add to the ProjectV2 for the pull request and all the linked issues
+        List<Issue> linkedIssues = new ArrayList<>(pullRequest.linkedIssues);
+        List<String> issueIds = linkedIssues.stream().map(issue -> issue.id).toList();
+        JsonObject variables = new JsonObject()
+                .put("pullRequestId", pullRequest.id)
+                .put("milestoneId", updatedMilestone.id());
+        if (labelId != null) {
+            variables.put("labelIds", new JsonArray().add(labelId));
+        }
+        if (projectColumn != null) {
+            variables.put("projectId", projectColumn.project().id);
+        }
+        for (int i = 0; i < issueIds.size(); i++) {
+            variables.put("issue" + i, issueIds.get(i));
+        }
+
+        JsonObject response = graphQL.graphql(GraphQLOperation.render(
+                Templates.markPullRequestAsBackported(issueIds, labelId != null, projectColumn != null)), variables);
+
+        Map<String, List<String>> errorsByAlias = getErrorsByAlias(response);
+        if (response.getJsonObject("data") == null || errorsByAlias.containsKey(NO_ALIAS)) {
             throw new IOException(response.toString());
         }
 
-        // Update linked issues
-        String issueGraphQL = Templates.updateIssue().render();
-        for (Issue issue : pullRequest.linkedIssues) {
-            // Set Milestone and remove the backport tag
-            response = graphQLClient.graphql(token, new JsonObject()
-                    .put("query", issueGraphQL)
-                    .put("variables", new JsonObject()
-                            .put("inputMilestone", new JsonObject()
-                                    .put("id", issue.id)
-                                    .put("milestoneId", updatedMilestone.id()))
-                            .put("inputLabel", new JsonObject()
-                                    .put("labelableId", issue.id)
-                                    .put("labelIds", backportLabelId))));
-            // Any errors?
-            if (response.getJsonArray("errors") != null) {
-                throw new IOException(response.toString());
+        JsonObject data = response.getJsonObject("data");
+        List<String> itemIds = new ArrayList<>();
+        Map<String, List<String>> updateErrors = new LinkedHashMap<>();
+        for (int i = -1; i < linkedIssues.size(); i++) {
+            String aliasPrefix = i < 0 ? "pullRequest" : "issue" + i;
+            String description = i < 0 ? "pull request #" + pullRequest.number : "issue #" + linkedIssues.get(i).number;
+
+            for (String alias : List.of(aliasPrefix + "Milestone", aliasPrefix + "Label")) {
+                if (errorsByAlias.containsKey(alias)) {
+                    updateErrors.put(description + " (" + alias + ")", errorsByAlias.get(alias));
+                }
+            }
+
+            if (projectColumn == null) {
+                continue;
+            }
+            JsonObject itemJson = data.getJsonObject(aliasPrefix + "Item");
+            if (itemJson != null && itemJson.getJsonObject("item") != null) {
+                itemIds.add(itemJson.getJsonObject("item").getString("id"));
+            } else {
+                LOG.errorf("Failed to add %s to project %s: %s", description, projectColumn.project().title,
+                        errorsByAlias.get(aliasPrefix + "Item"));
             }
         }
 
-        // Add to ProjectV2 based on milestone version
-        try {
-            addIssueOrPullRequestToProjectV2(pullRequest.id, newMilestone.minorVersion(), newMilestone.title());
+        // Move all the project items to the column in a second round trip as we need the item ids
+        if (!itemIds.isEmpty()) {
+            try {
+                updateProjectV2ItemsFieldValue(projectColumn.project().id, itemIds, projectColumn.statusFieldId(),
+                        projectColumn.optionId());
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "Failed to move pull request #%d to project column %s", pullRequest.number,
+                        newMilestone.title());
+            }
+        }
+
+        // only apply what actually changed on GitHub, the pull request might still have to be backported to other branches
+        PullRequest backportedPullRequest = pullRequest.copy();
+        if (!errorsByAlias.containsKey("pullRequestMilestone")) {
+            backportedPullRequest.milestone = updatedMilestone;
+        }
+        if (!errorsByAlias.containsKey("pullRequestLabel")) {
+            backportedPullRequest.labels = new HashSet<>(pullRequest.labels);
+            backportedPullRequest.labels.remove(label);
+        }
+        pullRequests.updateAndGet(current -> current.withChanged(List.of(backportedPullRequest), this::isBackportCandidate));
+
+        // Any errors?
+        if (!updateErrors.isEmpty()) {
+            throw new IOException("Unable to mark pull request #" + pullRequest.number + " as backported: " + updateErrors);
+        }
+    }
 
-            for (Issue issue : pullRequest.linkedIssues) {
-                addIssueOrPullRequestToProjectV2(issue.id, newMilestone.minorVersion(), newMilestone.title());
+    /**
+     * Returns the project column of the micro version of the milestone.
+     * <p>
+     * The project boards are only a convenience: if the column can't be resolved, we log the error and the pull request is
+     * marked as backported without being added to the project.
+     *
+     * @return the project column, or null if it can't be resolved
+     */
+    private ProjectColumn getProjectColumn(Milestone milestone) {
+        try {
+            ProjectV2 project = await(getOrCreateProjectV2(milestone.minorVersion()));
+            ProjectV2Field statusField = await(getStatusField(project.id));
+            Optional<ProjectV2FieldOption> microVersionOption = statusField.options.stream()
+                    .filter(o -> milestone.title().equals(o.name)).findFirst();
+
+            if (microVersionOption.isEmpty()) {
+                LOG.errorf("Unable to find an option for micro version %s in project %s", milestone.title(), project.title);
+                return null;
             }
-        } catch (IOException e) {
-            LOG.errorf(e, "Failed to add pull request: %s to project column", pullRequest.number);
+            return new ProjectColumn(project, statusField.id, microVersionOption.get().id);
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf(e, "Unable to resolve the project column for micro version %s", milestone.title());
+            return null;
         }
     }
 
@@ -393,247 +974,309 @@ public class GitHubService {
         markPullRequestAsBackported(pullRequest, newMilestone);
     }
 
-    public boolean isMilestonePresentInStatusField(String projectId, Milestone milestone) {
-        ProjectV2Field statusField = getStatusField(projectId);
-
-        return statusField.options.stream().anyMatch(o -> milestone.title().equals(o.name));
+    public Uni<Boolean> isMilestonePresentInStatusField(String projectId, Milestone milestone) {
+        return getStatusField(projectId)
+                .map(statusField -> statusField.options.stream().anyMatch(o -> milestone.title().equals(o.name)));
     }
 
-    private Collection<Issue> findIssues(Collection<Integer> issueNumbers) throws IOException {
+    /**
+     * Resolves the issues in as few queries as possible.
+     * <p>
+     * Issues are requested in batches of aliased fields to keep the cost of each query bounded, one batch after the other.
+     */
+    private Uni<Map<Integer, Issue>> findIssues(Collection<Integer> issueNumbers, Priority priority) {
         if (issueNumbers.isEmpty()) {
-            return Collections.emptySet();
+            return Uni.createFrom().item(Collections.emptyMap());
         }
-        String query = Templates.findIssues(repository.owner(), repository.name(), issueNumbers).render();
-        JsonObject response = graphQLClient.graphql(token, new JsonObject().put("query", query));
-        // Any errors?
-        JsonArray errors = response.getJsonArray("errors");
-        if (errors != null) {
-            // Checking if there are any errors different from NOT_FOUND
-            for (int k = 0; k < errors.size(); k++) {
-                JsonObject error = errors.getJsonObject(k);
-                if (!"NOT_FOUND".equals(error.getString("type"))) {
-                    throw new IOException(error.toString());
-                }
+        List<Integer> sortedIssueNumbers = new ArrayList<>(new TreeSet<>(issueNumbers));
+        return Uni.createFrom().deferred(() -> {
+            Map<Integer, Issue> issues = new HashMap<>();
+            Uni<Void> batches = Uni.createFrom().voidItem();
+            for (int i = 0; i < sortedIssueNumbers.size(); i += findIssuesBatchSize) {
+                List<Integer> batch = sortedIssueNumbers.subList(i,
+                        Math.min(i + findIssuesBatchSize, sortedIssueNumbers.size()));
+                batches = batches.chain(() -> findIssues(batch, issues, priority));
             }
-        }
-        Set<Issue> issues = new HashSet<>();
-        JsonObject issuesJson = response.getJsonObject("data").getJsonObject("repository");
-        for (Integer issueNumber : issueNumbers) {
-            JsonObject jsonObject = issuesJson.getJsonObject("_" + issueNumber);
-            // If the issue cannot be found, null is returned
-            if (jsonObject != null && !jsonObject.isEmpty()) {
-                issues.add(jsonObject.mapTo(Issue.class));
-            }
-        }
-        return issues;
+            return batches.replaceWith(issues);
+        });
     }
 
-    public void addIssueOrPullRequestToProjectV2(String itemId, String minorVersion, String microVersion) throws IOException {
-        String repositoryId = getRepositoryId(repository);
-        String ownerId = getOwnerId(repository.owner());
-
-        ProjectV2 project = getOrCreateProjectV2(ownerId, repositoryId, repository, minorVersion);
-        ProjectV2Field statusField = getStatusField(project.id);
-        ProjectV2Item item = addItemToProjectV2(project.id, itemId);
-        Optional<ProjectV2FieldOption> microVersionOption = statusField.options.stream()
-                .filter(o -> microVersion.equals(o.name)).findFirst();
+    private Uni<Void> findIssues(List<Integer> issueNumbers, Map<Integer, Issue> issues, Priority priority) {
+        GraphQLOperation operation = GraphQLOperation.render(Templates.findIssues(issueNumbers));
+        Map<Integer, Issue> foundIssues = new HashMap<>();
+        return graphQL.graphqlAsync(operation, new JsonObject()
+                .put("owner", repository.owner())
+                .put("name", repository.name()),
+                priority,
+                onField("repository", parser -> decodeObject(parser, (alias, p) -> {
+                    Issue issue = PullRequestDecoder.decodeIssue(p);
+                    // If the issue cannot be found, null is returned
+                    if (issue != null && issue.id != null) {
+                        foundIssues.put(Integer.valueOf(alias.substring(1)), issue);
+                    }
+                })))
+                .onItemOrFailure().transformToUni((errors, failure) -> {
+                    if (failure instanceof WebApplicationException e) {
+                        // GitHub gives up on queries that take too long to resolve, the other HTTP errors won't go away
+                        // by splitting
+                        if (issueNumbers.size() > 1 && QUERY_TOO_LARGE_HTTP_STATUSES.contains(e.getResponse().getStatus())) {
+                            return splitAndFindIssues(issueNumbers, issues, e.getMessage(), priority);
+                        }
+                        return Uni.createFrom().<Void> failure(
+                                new IOException("Unable to find " + describeIssues(issueNumbers), e));
+                    }
+                    if (failure != null) {
+                        return Uni.createFrom().<Void> failure(failure);
+                    }
+                    // Any errors?
+                    if (errors != null) {
+                        // Checking if there are any errors different from NOT_FOUND
+                        for (int k = 0; k < errors.size(); k++) {
+                            JsonObject error = errors.getJsonObject(k);
+                            if (!"NOT_FOUND".equals(error.getString("type"))) {
+                                // the query is too big (node limit, complexity...), let's try again with smaller ones
+                                if (issueNumbers.size() > 1 && QUERY_TOO_LARGE_ERROR_TYPES.contains(error.getString("type"))) {
+                                    return splitAndFindIssues(issueNumbers, issues, error.toString(), priority);
+                                }
+                                return Uni.createFrom().<Void> failure(
+                                        new IOException("Unable to find " + describeIssues(issueNumbers) + ": " + error));
+                            }
+                        }
+                    }
+                    issues.putAll(foundIssues);
+                    return Uni.createFrom().voidItem();
+                });
+    }
 
-        if (microVersionOption.isEmpty()) {
-            throw new IllegalStateException("Unable to find an option for micro version: " + microVersion);
+    /**
+     * @return the issues of a batch, the numbers being sorted
+     */
+    private static String describeIssues(List<Integer> issueNumbers) {
+        if (issueNumbers.size() == 1) {
+            return "issue #" + issueNumbers.get(0);
         }
-
-        updateProjectV2ItemFieldValue(project.id, item.id, statusField.id, microVersionOption.get().id);
+        return issueNumbers.size() + " issues from #" + issueNumbers.get(0) + " to #"
+                + issueNumbers.get(issueNumbers.size() - 1);
     }
 
-    private String getOwnerId(String owner) {
-        return ownerIdCache.computeIfAbsent(owner, o -> {
-            JsonObject variables = new JsonObject();
-            variables.put("owner", owner);
+    private Uni<Void> splitAndFindIssues(List<Integer> issueNumbers, Map<Integer, Issue> issues, String cause,
+            Priority priority) {
+        LOG.debugf("Splitting the query for %s: %s", describeIssues(issueNumbers), cause);
+        int middle = issueNumbers.size() / 2;
+        return findIssues(issueNumbers.subList(0, middle), issues, priority)
+                .chain(() -> findIssues(issueNumbers.subList(middle, issueNumbers.size()), issues, priority));
+    }
 
-            JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                    .put("query", Templates.getOwnerInfo().render()).put("variables", variables));
+    private Uni<String> getOwnerId(String owner) {
+        String ownerId = ownerIdCache.get(owner);
+        if (ownerId != null) {
+            return Uni.createFrom().item(ownerId);
+        }
 
-            if (response.getJsonArray("errors") != null &&
-                    response.getJsonObject("data") == null) {
-                throw new IllegalStateException("Unable to get owner info: " + response.getJsonArray("errors").toString());
-            }
-            JsonObject data = response.getJsonObject("data");
-            JsonObject org = data.getJsonObject("organization");
-            if (org != null) {
-                return org.getString("id");
-            }
+        JsonObject variables = new JsonObject();
+        variables.put("owner", owner);
+
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.getOwnerInfo()), variables)
+                .map(response -> {
+                    if (response.getJsonArray("errors") != null &&
+                            response.getJsonObject("data") == null) {
+                        throw new IllegalStateException(
+                                "Unable to get owner info: " + response.getJsonArray("errors").toString());
+                    }
+                    JsonObject data = response.getJsonObject("data");
+                    JsonObject org = data.getJsonObject("organization");
+                    if (org != null) {
+                        return org.getString("id");
+                    }
 
-            JsonObject user = data.getJsonObject("user");
-            if (user != null) {
-                return user.getString("id");
-            }
+                    JsonObject user = data.getJsonObject("user");
+                    if (user != null) {
+                        return user.getString("id");
+                    }
 
-            throw new IllegalStateException(String.format("Unable to get the owner information for owner: %s", owner));
-        });
+                    throw new IllegalStateException(String.format("Unable to get the owner information for owner: %s", owner));
+                })
+                .invoke(id -> ownerIdCache.put(owner, id));
     }
 
-    private String getRepositoryId(Repository repository) {
-        return repositoryIdCache.computeIfAbsent(repository, r -> {
-            JsonObject variables = new JsonObject();
-            variables.put("owner", repository.owner());
-            variables.put("name", repository.name());
-
-            JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                    .put("query", Templates.getRepositoryInfo().render()).put("variables", variables));
+    private Uni<String> getRepositoryId(Repository repository) {
+        String repositoryId = repositoryIdCache.get(repository);
+        if (repositoryId != null) {
+            return Uni.createFrom().item(repositoryId);
+        }
 
-            JsonObject data = response.getJsonObject("data");
-            JsonObject repositoryNode = data.getJsonObject("repository");
-            if (repositoryNode != null) {
-                return repositoryNode.getString("id");
-            }
+        JsonObject variables = new JsonObject();
+        variables.put("owner", repository.owner());
+        variables.put("name", repository.name());
+
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.getRepositoryInfo()), variables)
+                .map(response -> {
+                    JsonObject data = response.getJsonObject("data");
+                    JsonObject repositoryNode = data.getJsonObject("repository");
+                    if (repositoryNode != null) {
+                        return repositoryNode.getString("id");
+                    }
 
-            throw new IllegalStateException(
-                    String.format("Unable to get the repository information for repository: %s", repository));
-        });
+                    throw new IllegalStateException(
+                            String.format("Unable to get the repository information for repository: %s", repository));
+                })
+                .invoke(id -> repositoryIdCache.put(repository, id));
     }
 
     // For now, we can't use this as we need a proper status of if the project has been already created or not
     @Deprecated
-    private ProjectV2 getOrCreateProjectV2(String ownerId, String repositoryId, Repository repository, String minorVersion) {
-        return projectCache.computeIfAbsent(minorVersion, mv -> {
-            String projectTitle = String.format(PROJECT_NAME, mv);
-
-            JsonObject variables = new JsonObject();
-            variables.put("owner", repository.owner());
-            variables.put("repository", repository.name());
+    private Uni<ProjectV2> getOrCreateProjectV2(String minorVersion) {
+        // only the lookup is done while holding the lock, the queries are sent once it is cached
+        return projectCache.computeIfAbsent(minorVersion, mv -> findOrCreateProjectV2(mv)
+                // the next caller will try again
+                .onFailure().invoke(() -> projectCache.remove(mv))
+                .memoize().indefinitely());
+    }
 
-            JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                    .put("query", Templates.getProjectsV2().render()).put("variables", variables));
+    private Uni<ProjectV2> findOrCreateProjectV2(String minorVersion) {
+        String projectTitle = String.format(PROJECT_NAME, minorVersion);
 
-            if (response.getJsonArray("errors") != null) {
-                throw new IllegalStateException(String.format("Unable to get projects for repository: %s: %s",
-                        repository.fullName(), response.getJsonArray("errors").toString()));
-            }
+        JsonObject variables = new JsonObject();
+        variables.put("owner", repository.owner());
+        variables.put("repository", repository.name());
+
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.getProjectsV2()), variables)
+                .chain(response -> {
+                    if (response.getJsonArray("errors") != null) {
+                        throw new IllegalStateException(String.format("Unable to get projects for repository: %s: %s",
+                                repository.fullName(), response.getJsonArray("errors").toString()));
+                    }
 
-            JsonObject data = response.getJsonObject("data");
-            JsonArray projects = null;
+                    JsonObject data = response.getJsonObject("data");
+                    JsonArray projects = null;
 
-            JsonObject repositoryNode = data.getJsonObject("repository");
-            if (repositoryNode != null) {
-                projects = repositoryNode.getJsonObject("projectsV2").getJsonArray("nodes");
-            }
+                    JsonObject repositoryNode = data.getJsonObject("repository");
+                    if (repositoryNode != null) {
+                        projects = repositoryNode.getJsonObject("projectsV2").getJsonArray("nodes");
+                    }
 
-            ProjectV2 project = null;
-            if (projects != null && !projects.isEmpty()) {
-                for (int i = 0; i < projects.size(); i++) {
-                    ProjectV2 projectCandidate = projects.getJsonObject(i).mapTo(ProjectV2.class);
-                    if (projectTitle.equals(projectCandidate.title)) {
-                        project = projectCandidate;
-                        break;
+                    if (projects != null && !projects.isEmpty()) {
+                        for (int i = 0; i < projects.size(); i++) {
+                            ProjectV2 projectCandidate = projects.getJsonObject(i).mapTo(ProjectV2.class);
+                            if (projectTitle.equals(projectCandidate.title)) {
+                                return Uni.createFrom().item(projectCandidate);
+                            }
+                        }
                     }
-                }
-            }
-            if (project == null) {
-                project = createProjectV2(ownerId, repositoryId, minorVersion, projectTitle);
-            }
 
-            return project;
-        });
+                    return Uni.combine().all().unis(getOwnerId(repository.owner()), getRepositoryId(repository)).asTuple()
+                            .chain(ids -> createProjectV2(ids.getItem1(), ids.getItem2(), minorVersion, projectTitle));
+                });
     }
 
-    private ProjectV2 createProjectV2(String ownerId, String repositoryId, String minorVersion, String title) {
+    private Uni<ProjectV2> createProjectV2(String ownerId, String repositoryId, String minorVersion, String title) {
         JsonObject variables = new JsonObject();
         variables.put("ownerId", ownerId);
         variables.put("repositoryId", repositoryId);
         variables.put("title", title);
 
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.createProjectV2().render()).put("variables", variables));
-
-        if (response.getJsonArray("errors") != null) {
-            throw new IllegalStateException(String.format("Unable to create project for owner: %s, title: %s: %s",
-                    repository.owner(), title, response.getJsonArray("errors").toString()));
-        }
-
-        ProjectV2 projectV2 = response.getJsonObject("data")
-                .getJsonObject("createProjectV2")
-                .getJsonObject("projectV2")
-                .mapTo(ProjectV2.class);
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.createProjectV2()), variables)
+                .chain(response -> {
+                    if (response.getJsonArray("errors") != null) {
+                        throw new IllegalStateException(String.format("Unable to create project for owner: %s, title: %s: %s",
+                                repository.owner(), title, response.getJsonArray("errors").toString()));
+                    }
 
-        initializeProjectV2(projectV2.id, minorVersion);
+                    ProjectV2 projectV2 = response.getJsonObject("data")
+                            .getJsonObject("createProjectV2")
+                            .getJsonObject("projectV2")
+                            .mapTo(ProjectV2.class);
 
-        return projectV2;
+                    return initializeProjectV2(projectV2.id, minorVersion).replaceWith(projectV2);
+                });
     }
 
-    private ProjectV2Field getStatusField(String projectId) {
-        return statusFieldCache.computeIfAbsent(projectId, pi -> getProjectV2FieldOptions(projectId, STATUS_FIELD));
+    /**
+     * Returns the status field of the project, it is only fetched the first time.
+     */
+    private Uni<ProjectV2Field> getStatusField(String projectId) {
+        ProjectV2Field statusField = statusFieldCache.get(projectId);
+        if (statusField != null) {
+            return Uni.createFrom().item(statusField);
+        }
+        return getProjectV2FieldOptions(projectId, STATUS_FIELD)
+                // a more recent version might have been cached in the meantime
+                .map(fetchedStatusField -> {
+                    ProjectV2Field cachedStatusField = statusFieldCache.putIfAbsent(projectId, fetchedStatusField);
+                    return cachedStatusField != null ? cachedStatusField : fetchedStatusField;
+                });
     }
 
-    public ProjectV2Field refreshStatusField(String projectId) {
-        statusFieldCache.remove(projectId);
-        return statusFieldCache.computeIfAbsent(projectId, pi -> getProjectV2FieldOptions(projectId, STATUS_FIELD));
+    public Uni<ProjectV2Field> refreshStatusField(String projectId) {
+        return getProjectV2FieldOptions(projectId, STATUS_FIELD)
+                .invoke(statusField -> statusFieldCache.put(projectId, statusField));
     }
 
     public String getStatusFieldSettingsUrl(Integer projectNumber) {
         return String.format(STATUS_FIELD_SETTINGS_URL, repository.owner(), projectNumber);
     }
 
-    private ProjectV2Item addItemToProjectV2(String projectId, String contentId) {
-        JsonObject variables = new JsonObject()
-                .put("projectId", projectId)
-                .put("contentId", contentId);
-
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.addItemToProjectV2().render())
-                .put("variables", variables));
-
-        if (response.getJsonArray("errors") != null) {
-            throw new IllegalStateException(String.format("Unable to add item: %s to project: %s. Errors: %s", "TODO item",
-                    "TODO project", response.toString()));
-        }
-
-        return response.getJsonObject("data")
-                .getJsonObject("addProjectV2ItemById")
-                .getJsonObject("item")
-                .mapTo(ProjectV2Item.class);
-    }
-
-    private void updateProjectV2ItemFieldValue(String projectId, String itemId, String fieldId, String optionId) {
+    private void updateProjectV2ItemsFieldValue(String projectId, List<String> itemIds, String fieldId, String optionId) {
         JsonObject variables = new JsonObject()
                 .put("projectId", projectId)
-                .put("itemId", itemId)
                 .put("fieldId", fieldId)
                 .put("optionId", optionId);
+        for (int i = 0; i < itemIds.size(); i++) {
+            variables.put("item" + i, itemIds.get(i));
+        }
 
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.updateProjectV2ItemFieldValue().render())
-                .put("variables", variables));
+        JsonObject response = graphQL.graphql(GraphQLOperation.render(Templates.updateProjectV2ItemsFieldValue(itemIds)),
+                variables);
 
-        if (response.getJsonArray("errors") != null) {
-            throw new IllegalStateException(String.format("Unable to update item field value: %s", response.toString()));
+        Map<String, List<String>> errorsByAlias = getErrorsByAlias(response);
+        if (!errorsByAlias.isEmpty()) {
+            LOG.errorf("Unable to update item field values: %s", errorsByAlias);
         }
     }
 
-    public ProjectV2Field initializeProjectV2(String projectId, String minorVersion) {
-        // Get current field options
-        ProjectV2Field statusField = getProjectV2FieldOptions(projectId, STATUS_FIELD);
-
-        // Prepare options list with the new option
-        List<JsonObject> options = new ArrayList<>();
-
-        // Add one option for each micro
-        for (int i = 0; i < 9; i++) {
-            String microVersion = minorVersion + "." + i;
-
-            JsonObject newOptionJson = new JsonObject();
-            newOptionJson.put("name", microVersion);
-            newOptionJson.put("description", String.format(OPTION_DESCRIPTION, microVersion));
-            newOptionJson.put("color", COLUMN_COLOR);
-            options.add(newOptionJson);
+    /**
+     * Groups the errors of a batched GraphQL operation by the alias they are reported for.
+     * <p>
+     * Errors not related to a given alias (e.g. invalid document) are reported with the {@link #NO_ALIAS} key.
+     */
+    private static Map<String, List<String>> getErrorsByAlias(JsonObject response) {
+        Map<String, List<String>> errorsByAlias = new LinkedHashMap<>();
+        JsonArray errors = response.getJsonArray("errors");
+        if (errors == null) {
+            return errorsByAlias;
         }
+        for (int i = 0; i < errors.size(); i++) {
+            JsonObject error = errors.getJsonObject(i);
+            JsonArray path = error.getJsonArray("path");
+            String alias = path != null && !path.isEmpty() ? String.valueOf(path.getValue(0)) : NO_ALIAS;
+            errorsByAlias.computeIfAbsent(alias, a -> new ArrayList<>()).add(error.getString("message"));
+        }
+        return errorsByAlias;
+    }
 
-        // Update the field with new options
-        ProjectV2Field projectV2Field = updateProjectV2FieldOptions(projectId, statusField.id, statusField.name,
-                new JsonArray(options));
-        // and make sure the cache is updated
-        statusFieldCache.put(projectId, projectV2Field);
+    public Uni<ProjectV2Field> initializeProjectV2(String projectId, String minorVersion) {
+        // Get current field options
+        return getProjectV2FieldOptions(projectId, STATUS_FIELD)
+                .chain(statusField -> {
+                    // Prepare options list with the new option
+                    List<JsonObject> options = new ArrayList<>();
+
+                    // Add one option for each micro
+                    for (int i = 0; i < 9; i++) {
+                        String microVersion = minorVersion + "." + i;
+
+                        JsonObject newOptionJson = new JsonObject();
+                        newOptionJson.put("name", microVersion);
+                        newOptionJson.put("description", String.format(OPTION_DESCRIPTION, microVersion));
+                        newOptionJson.put("color", COLUMN_COLOR);
+                        options.add(newOptionJson);
+                    }
 
-        return projectV2Field;
+                    // Update the field with new options
+                    return updateProjectV2FieldOptions(projectId, statusField.id, statusField.name, new JsonArray(options));
+                })
+                // and make sure the cache is updated
+                .invoke(projectV2Field -> statusFieldCache.put(projectId, projectV2Field));
     }
 
     /**
@@ -652,7 +1295,7 @@ public class GitHubService {
     public ProjectV2Field addOptionToStatusFieldIfNecessary(String projectId, String microVersion, String newOptionDescription,
             String newOptionColor) {
         // Get current field options
-        ProjectV2Field statusField = getProjectV2FieldOptions(projectId, STATUS_FIELD);
+        ProjectV2Field statusField = getProjectV2FieldOptions(projectId, STATUS_FIELD).await().indefinitely();
 
         // Check if option already exists
         boolean optionExists = statusField.options.stream()
@@ -695,7 +1338,7 @@ public class GitHubService {
 
         // Update the field with new options
         ProjectV2Field projectV2Field = updateProjectV2FieldOptions(projectId, statusField.id, statusField.name,
-                new JsonArray(options));
+                new JsonArray(options)).await().indefinitely();
         // and make sure the cache is updated
         statusFieldCache.put(projectId, projectV2Field);
 
@@ -709,34 +1352,34 @@ public class GitHubService {
      * @param fieldName The ID of the field
      * @return The ProjectV2Field with its options
      */
-    private ProjectV2Field getProjectV2FieldOptions(String projectId, String fieldName) {
+    private Uni<ProjectV2Field> getProjectV2FieldOptions(String projectId, String fieldName) {
         JsonObject variables = new JsonObject()
                 .put("projectId", projectId)
                 .put("fieldName", fieldName);
 
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.getProjectV2FieldOptions().render())
-                .put("variables", variables));
-
-        if (response.getJsonArray("errors") != null) {
-            throw new IllegalStateException(String.format("Unable to get field options: %s", response.toString()));
-        }
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.getProjectV2FieldOptions()), variables)
+                .map(response -> {
+                    if (response.getJsonArray("errors") != null) {
+                        throw new IllegalStateException(String.format("Unable to get field options: %s", response.toString()));
+                    }
 
-        JsonObject fieldData = response.getJsonObject("data")
-                .getJsonObject("node")
-                .getJsonObject("field");
+                    JsonObject fieldData = response.getJsonObject("data")
+                            .getJsonObject("node")
+                            .getJsonObject("field");
 
-        if (fieldData == null) {
-            throw new IllegalArgumentException(String.format("Field %s not found in project %s", fieldName, projectId));
-        }
+                    if (fieldData == null) {
+                        throw new IllegalArgumentException(
+                                String.format("Field %s not found in project %s", fieldName, projectId));
+                    }
 
-        ProjectV2Field statusField = fieldData.mapTo(ProjectV2Field.class);
+                    ProjectV2Field statusField = fieldData.mapTo(ProjectV2Field.class);
 
-        if (!"SINGLE_SELECT".equals(statusField.dataType)) {
-            throw new IllegalArgumentException("Field is not a single select field");
-        }
+                    if (!"SINGLE_SELECT".equals(statusField.dataType)) {
+                        throw new IllegalArgumentException("Field is not a single select field");
+                    }
 
-        return statusField;
+                    return statusField;
+                });
     }
 
     /**
@@ -748,25 +1391,40 @@ public class GitHubService {
      * @param options The new options for the field
      * @return The updated ProjectV2Field
      */
-    private ProjectV2Field updateProjectV2FieldOptions(String projectId, String fieldId, String fieldName, JsonArray options) {
+    private Uni<ProjectV2Field> updateProjectV2FieldOptions(String projectId, String fieldId, String fieldName,
+            JsonArray options) {
         JsonObject variables = new JsonObject()
                 .put("fieldId", fieldId)
                 .put("name", fieldName)
                 .put("options", options);
 
-        JsonObject response = graphQLClient.graphql(token, new JsonObject()
-                .put("query", Templates.updateProjectV2Field().render())
-                .put("variables", variables));
+        return graphQL.graphqlAsync(GraphQLOperation.compile(Templates.updateProjectV2Field()), variables)
+                .map(response -> {
+                    if (response.getJsonArray("errors") != null) {
+                        throw new IllegalStateException(
+                                String.format("Unable to update field options: %s", response.toString()));
+                    }
 
-        if (response.getJsonArray("errors") != null) {
-            throw new IllegalStateException(String.format("Unable to update field options: %s", response.toString()));
-        }
+                    JsonObject fieldData = response.getJsonObject("data")
+                            .getJsonObject("updateProjectV2Field")
+                            .getJsonObject("projectV2Field");
 
-        JsonObject fieldData = response.getJsonObject("data")
-                .getJsonObject("updateProjectV2Field")
-                .getJsonObject("projectV2Field");
+                    return fieldData.mapTo(ProjectV2Field.class);
+                });
+    }
 
-        return fieldData.mapTo(ProjectV2Field.class);
+    /**
+     * Waits for the queries, only for the callers running on a worker thread, e.g. the webhooks.
+     */
+    private static <T> T await(Uni<T> queries) throws IOException {
+        try {
+            return queries.await().indefinitely();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     public static String getMinorVersion(String version) {
@@ -784,42 +1442,64 @@ public class GitHubService {
         /**
          * Returns all the milestones from the repository
          */
-        public static native TemplateInstance listMilestones(String owner, String repo);
+        public static native TemplateInstance listMilestones();
 
         /**
          * Returns the (closed?) pull requests that match the specified label
          */
-        public static native TemplateInstance listPullRequestsToBackport(String repo, String label);
+        public static native TemplateInstance listPullRequestsToBackport();
+
+        /**
+         * Returns the numbers of the merged pull requests updated since the given date that don't have the label anymore
+         */
+        public static native TemplateInstance listPullRequestsNoLongerToBackport();
 
         /**
          * Returns the open pull requests targeting the specified branch
          */
-        public static native TemplateInstance listOpenPullRequestsTargetingBranch(String repo, String branch);
+        public static native TemplateInstance listOpenPullRequestsTargetingBranch();
 
         /**
          * Returns the open pull requests targeting the specified branch
          */
-        public static native TemplateInstance listMergedPullRequestsTargetingBranchWithNoMilestone(String repo, String branch);
+        public static native TemplateInstance listMergedPullRequestsTargetingBranchWithNoMilestone();
 
         /**
-         * Returns the backport label ID
+         * Returns a single pull request
          */
-        public static native TemplateInstance findBackportLabelId(String owner, String repo, String label);
+        public static native TemplateInstance getPullRequest();
 
         /**
-         * Returns the issues given their respective numbers
+         * Returns the next page of commits of a pull request
+         */
+        public static native TemplateInstance listPullRequestCommits();
+
+        /**
+         * Returns the next page of labels of a pull request
+         */
+        public static native TemplateInstance listPullRequestLabels();
+
+        /**
+         * Returns the next page of connected/disconnected events of a pull request
+         */
+        public static native TemplateInstance listPullRequestTimelineItems();
+
+        /**
+         * Returns the ID of a backport label
          */
-        public static native TemplateInstance findIssues(String owner, String repo, Collection<Integer> issues);
+        public static native TemplateInstance findBackportLabelId();
 
         /**
-         * Update the Pull Request to the specified milestone and remove backport label
+         * Returns the issues given their respective numbers
          */
-        public static native TemplateInstance updatePullRequest();
+        public static native TemplateInstance findIssues(Collection<Integer> issues);
 
         /**
-         * Update the Issue to the specified milestone and remove backport label
+         * Update the Pull Request and its linked issues to the specified milestone, remove backport label and add them to
+         * the ProjectV2, the label and the project being optional
          */
-        public static native TemplateInstance updateIssue();
+        public static native TemplateInstance markPullRequestAsBackported(List<String> issueIds, boolean removeLabel,
+                boolean addToProject);
 
         /**
          * Find ProjectV2
@@ -832,14 +1512,9 @@ public class GitHubService {
         public static native TemplateInstance createProjectV2();
 
         /**
-         * Add item to project
+         * Update the field value of several project items
          */
-        public static native TemplateInstance addItemToProjectV2();
-
-        /**
-         * Update project item field value
-         */
-        public static native TemplateInstance updateProjectV2ItemFieldValue();
+        public static native TemplateInstance updateProjectV2ItemsFieldValue(List<String> itemIds);
 
         /**
          * Get owner information
@@ -863,4 +1538,7 @@ public class GitHubService {
 
     }
 
+    private record ProjectColumn(ProjectV2 project, String statusFieldId, String optionId) {
+    }
+
 }
@@ -0,0 +1,199 @@
+package io.quarkus.backports;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.backports.graphql.GitHubGraphQL;
+import io.quarkus.backports.model.Repository;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/**
+ * The {@link GitHubService}s of the repositories we backport for.
+ * <p>
+ * The service of a repository is created the first time the repository is accessed and dropped, with all its caches, when
+ * nobody looked at the repository for {@code backports.repository-idle-timeout}. The service of the default repository is
+ * always kept.
+ * <p>
+ * The label of a repository is {@code backports."<owner>/<name>".label}, {@code backports.label} by default, and its
+ * branch labels are {@code backports."<owner>/<name>".branch-labels}, {@code backports.branch-labels} being the branch
+ * labels of the default repository.
+ */
+@ApplicationScoped
+public class GitHubServices {
+
+    private static final Logger LOG = Logger.getLogger(GitHubServices.class);
+
+    @Inject
+    GitHubGraphQL graphQL;
+
+    @Inject
+    Config config;
+
+    private final Repository defaultRepository;
+
+    /**
+     * All the repositories we backport for, the default one first
+     */
+    private final Set<Repository> repositories;
+
+    private final String defaultBackportLabel;
+
+    private final List<String> defaultBranchLabels;
+
+    private final int findIssuesBatchSize;
+
+    private final Duration fullSyncInterval;
+
+    private final Duration idleTimeout;
+
+    private final Map<Repository, ServiceHolder> services = new ConcurrentHashMap<>();
+
+    @Inject
+    public GitHubServices(
+            @ConfigProperty(name = "backports.repository") String repositoryName,
+            @ConfigProperty(name = "backports.repositories") Optional<List<String>> repositoryNames,
+            @ConfigProperty(name = "backports.label") String backportLabel,
+            @ConfigProperty(name = "backports.branch-labels") Optional<List<String>> branchLabels,
+            @ConfigProperty(name = "backports.find-issues.batch-size", defaultValue = "50") int findIssuesBatchSize,
+            @ConfigProperty(name = "backports.full-sync-interval", defaultValue = "1h") Duration fullSyncInterval,
+            @ConfigProperty(name = "backports.repository-idle-timeout", defaultValue = "6h") Duration idleTimeout) {
+        this.defaultRepository = Repository.fromString(repositoryName);
+        this.repositories = new LinkedHashSet<>();
+        this.repositories.add(defaultRepository);
+        repositoryNames.orElse(List.of()).forEach(name -> this.repositories.add(Repository.fromString(name)));
+        this.defaultBackportLabel = backportLabel;
+        this.defaultBranchLabels = branchLabels.orElse(List.of());
+        this.findIssuesBatchSize = findIssuesBatchSize;
+        this.fullSyncInterval = fullSyncInterval;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Repository getDefaultRepository() {
+        return defaultRepository;
+    }
+
+    public Set<Repository> getRepositories() {
+        return Collections.unmodifiableSet(repositories);
+    }
+
+    public GitHubService getDefault() {
+        return get(defaultRepository);
+    }
+
+    public GitHubService get(String owner, String name) {
+        return get(new Repository(owner + "/" + name, owner, name));
+    }
+
+    /**
+     * Returns the service of the repository, creating it if needed.
+     *
+     * @throws NotFoundException if we don't backport for this repository
+     */
+    public GitHubService get(Repository repository) {
+        if (!repositories.contains(repository)) {
+            throw new NotFoundException("Unknown repository " + repository.fullName());
+        }
+        ServiceHolder holder = services.get(repository);
+        if (holder == null) {
+            // created outside of the map as it queries GitHub, a concurrent creation wins and ours is dropped
+            ServiceHolder createdHolder = createService(repository);
+            holder = services.putIfAbsent(repository, createdHolder);
+            if (holder == null) {
+                holder = createdHolder;
+                LOG.infof("Backporting for repository %s", repository.fullName());
+            }
+        }
+        holder.lastAccess = Instant.now();
+        return holder.service;
+    }
+
+    /**
+     * Same as {@link #get(Repository)} without blocking the caller: creating the service fetches the ids of the backport
+     * labels, it is done on a worker thread.
+     */
+    public Uni<GitHubService> getAsync(String owner, String name) {
+        Repository repository = new Repository(owner + "/" + name, owner, name);
+        ServiceHolder holder = services.get(repository);
+        if (holder != null) {
+            holder.lastAccess = Instant.now();
+            return Uni.createFrom().item(holder.service);
+        }
+        return Uni.createFrom().item(() -> get(repository)).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Returns the service of the repository if it is active, without creating it nor considering it accessed.
+     */
+    public Optional<GitHubService> getIfActive(Repository repository) {
+        ServiceHolder holder = services.get(repository);
+        return holder != null ? Optional.of(holder.service) : Optional.empty();
+    }
+
+    /**
+     * @return the services of the repositories accessed recently
+     */
+    public Collection<GitHubService> getActive() {
+        List<GitHubService> activeServices = new ArrayList<>();
+        for (ServiceHolder holder : services.values()) {
+            activeServices.add(holder.service);
+        }
+        return activeServices;
+    }
+
+    private ServiceHolder createService(Repository repository) {
+        String prefix = "backports.\"" + repository.fullName() + "\".";
+        String backportLabel = config.getOptionalValue(prefix + "label", String.class).orElse(defaultBackportLabel);
+        List<String> branchLabels = config.getOptionalValues(prefix + "branch-labels", String.class)
+                .orElse(repository.equals(defaultRepository) ? defaultBranchLabels : List.of());
+
+        GitHubService service = new GitHubService(graphQL, repository, backportLabel, branchLabels, findIssuesBatchSize,
+                fullSyncInterval);
+        service.fetchBackportLabelIds();
+        return new ServiceHolder(service);
+    }
+
+    @Scheduled(every = "{backports.refresh.interval}", delayed = "{backports.refresh.interval}",
+            concurrentExecution = ConcurrentExecution.SKIP)
+    void evictIdleServices() {
+        Instant idleLimit = Instant.now().minus(idleTimeout);
+        services.entrySet().removeIf(entry -> {
+            if (entry.getKey().equals(defaultRepository) || !entry.getValue().lastAccess.isBefore(idleLimit)) {
+                return false;
+            }
+            LOG.infof("Dropping the caches of repository %s as nobody looked at it since %s", entry.getKey().fullName(),
+                    entry.getValue().lastAccess);
+            return true;
+        });
+    }
+
+    private static final class ServiceHolder {
+
+        private final GitHubService service;
+
+        private volatile Instant lastAccess = Instant.now();
+
+        private ServiceHolder(GitHubService service) {
+            this.service = service;
+        }
+    }
+}
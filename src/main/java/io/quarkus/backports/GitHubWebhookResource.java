@@ -0,0 +1,109 @@
+package io.quarkus.backports;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestHeader;
+
+import io.quarkus.backports.model.PullRequest;
+import io.quarkus.backports.model.Repository;
+import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.Blocking;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Consumes the GitHub webhook events to keep the data we display up to date without polling GitHub.
+ * <p>
+ * The webhook has to be configured with the {@code application/json} content type and the {@code backports.webhook-secret}
+ * secret.
+ */
+@Path("/webhooks/github")
+public class GitHubWebhookResource {
+
+    @Inject
+    GitHubServices gitHubServices;
+
+    @Inject
+    BackportsRefresher refresher;
+
+    @ConfigProperty(name = "backports.webhook-secret")
+    Optional<String> webhookSecret;
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.TEXT_PLAIN)
+    @Blocking
+    public Response onEvent(@RestHeader("X-GitHub-Event") String event,
+            @RestHeader("X-Hub-Signature-256") String signature,
+            byte[] payload) throws IOException {
+        if (webhookSecret.isEmpty()) {
+            Log.warn("Ignoring webhook event as backports.webhook-secret is not configured");
+            return Response.status(Status.SERVICE_UNAVAILABLE).build();
+        }
+        if (!GitHubWebhooks.isSignatureValid(webhookSecret.get(), payload, signature)) {
+            return Response.status(Status.UNAUTHORIZED).entity("Invalid signature").build();
+        }
+        if (event == null) {
+            return Response.status(Status.BAD_REQUEST).entity("Missing X-GitHub-Event header").build();
+        }
+
+        JsonObject json = new JsonObject(Buffer.buffer(payload));
+        JsonObject repositoryJson = json.getJsonObject("repository");
+        if (repositoryJson == null || repositoryJson.getString("full_name") == null) {
+            return Response.ok("IGNORED").build();
+        }
+        // the repositories nobody is looking at will be fetched from scratch when accessed
+        Optional<GitHubService> gitHubService = gitHubServices
+                .getIfActive(Repository.fromString(repositoryJson.getString("full_name")));
+        if (gitHubService.isEmpty()) {
+            return Response.ok("IGNORED").build();
+        }
+        GitHubService gitHub = gitHubService.get();
+
+        String action = json.getString("action");
+        switch (event) {
+            case "pull_request" -> {
+                JsonObject pullRequestPayload = json.getJsonObject("pull_request");
+                PullRequest pullRequest = gitHub.onPullRequestEvent(action, pullRequestPayload, json.getJsonObject("changes"),
+                        refresher.isBranchTracked(gitHub, pullRequestPayload.getJsonObject("base").getString("ref")));
+                if (pullRequest == null) {
+                    return Response.ok("IGNORED").build();
+                }
+                refresher.applyPullRequest(gitHub, pullRequest, "open".equals(pullRequestPayload.getString("state")));
+            }
+            case "issues" -> gitHub.onIssueEvent(json.getJsonObject("issue"));
+            case "milestone" -> refresher.refreshMilestones(gitHub).await().indefinitely();
+            case "label" -> {
+                JsonObject label = json.getJsonObject("label");
+                JsonObject changes = json.getJsonObject("changes");
+                String previousName = changes != null && changes.getJsonObject("name") != null
+                        ? changes.getJsonObject("name").getString("from")
+                        : null;
+                if ("deleted".equals(action)) {
+                    if (gitHub.isBackportLabel(label.getString("name"))) {
+                        gitHub.onBackportLabelDeleted(label.getString("name"));
+                    }
+                } else if (gitHub.isBackportLabel(label.getString("name")) || gitHub.isBackportLabel(previousName)) {
+                    gitHub.refreshBackportLabelIds();
+                }
+            }
+            default -> {
+                return Response.ok("IGNORED").build();
+            }
+        }
+
+        Log.debugf("Applied %s event (action: %s)", event, action);
+        return Response.ok("SUCCESS").build();
+    }
+}
@@ -0,0 +1,89 @@
+package io.quarkus.backports;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.PullRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Helpers to consume the GitHub webhook events.
+ */
+public final class GitHubWebhooks {
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private GitHubWebhooks() {
+    }
+
+    /**
+     * Checks the {@code X-Hub-Signature-256} header against the payload.
+     */
+    public static boolean isSignatureValid(String secret, byte[] payload, String signatureHeader) {
+        if (signatureHeader == null || !signatureHeader.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+
+        byte[] signature;
+        try {
+            signature = HexFormat.of().parseHex(signatureHeader.substring(SIGNATURE_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+            return MessageDigest.isEqual(mac.doFinal(payload), signature);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to verify the webhook signature", e);
+        }
+    }
+
+    /**
+     * Returns a copy of the pull request updated with the information from the {@code pull_request} object of a webhook
+     * payload.
+     * <p>
+     * Commits and linked issues are not part of the payload so they are kept as is.
+     */
+    public static PullRequest updatePullRequest(PullRequest pullRequest, JsonObject pullRequestPayload) {
+        PullRequest updatedPullRequest = new PullRequest();
+        updatedPullRequest.id = pullRequest.id;
+        updatedPullRequest.number = pullRequest.number;
+        updatedPullRequest.url = pullRequest.url;
+        updatedPullRequest.createdAt = pullRequest.createdAt;
+        updatedPullRequest.author = pullRequest.author;
+        updatedPullRequest.commits = pullRequest.commits;
+        updatedPullRequest.linkedIssues = pullRequest.linkedIssues;
+
+        updatedPullRequest.title = pullRequestPayload.getString("title");
+        updatedPullRequest.body = pullRequestPayload.getString("body");
+        updatedPullRequest.merged = pullRequestPayload.getBoolean("merged", false);
+        String mergedAt = pullRequestPayload.getString("merged_at");
+        updatedPullRequest.mergedAt = mergedAt != null ? Instant.parse(mergedAt) : null;
+        JsonArray labels = pullRequestPayload.getJsonArray("labels", new JsonArray());
+        updatedPullRequest.labels = labels.stream()
+                .map(JsonObject.class::cast)
+                .map(json -> json.getString("name"))
+                .collect(Collectors.toSet());
+        JsonObject milestone = pullRequestPayload.getJsonObject("milestone");
+        updatedPullRequest.milestone = milestone != null
+                ? new Milestone(milestone.getString("node_id"), milestone.getString("title"), null)
+                : null;
+        updatedPullRequest.headRefName = pullRequestPayload.getJsonObject("head").getString("ref");
+        updatedPullRequest.baseRefName = pullRequestPayload.getJsonObject("base").getString("ref");
+
+        return updatedPullRequest;
+    }
+}
@@ -5,16 +5,14 @@ import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import jakarta.enterprise.context.ApplicationScoped;
-
-import org.eclipse.microprofile.config.inject.ConfigProperty;
-
-@ApplicationScoped
+/**
+ * Extracts the issues fixed by a pull request from its body, each repository having its own extractor.
+ */
 public class IssueExtractor {
 
     private final Pattern pattern;
 
-    public IssueExtractor(@ConfigProperty(name = "backports.repository") String repository) {
+    public IssueExtractor(String repository) {
         pattern = Pattern.compile(
                 "\\b(?:(?:fix(?:e[sd])?|(?:(?:resolve|close)[sd]?))):?\\s+(?:https?:\\/\\/github.com\\/"
                         + Pattern.quote(repository) + "\\/issues\\/|#)(\\d+)",
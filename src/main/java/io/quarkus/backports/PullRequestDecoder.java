@@ -0,0 +1,236 @@
+package io.quarkus.backports;
+
+import static io.quarkus.backports.graphql.JsonParsers.decodeArray;
+import static io.quarkus.backports.graphql.JsonParsers.decodeNextCursor;
+import static io.quarkus.backports.graphql.JsonParsers.decodeObject;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import io.quarkus.backports.model.Commit;
+import io.quarkus.backports.model.Issue;
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.PullRequest;
+import io.quarkus.backports.model.User;
+
+/**
+ * Decodes the pull requests returned by the GraphQL queries straight from the parser tokens, without building a JSON tree.
+ * <p>
+ * The nested connections (commits, labels and timeline items) might not fit in the first page: the pages still to fetch are
+ * queued and can be polled with {@link #pollNextPage()}.
+ * <p>
+ * Instances are not thread safe, use one per search.
+ */
+public class PullRequestDecoder {
+
+    public static final String COMMITS = "commits";
+    public static final String LABELS = "labels";
+    public static final String TIMELINE_ITEMS = "timelineItems";
+
+    private final Deque<NextPage> nextPages = new ArrayDeque<>();
+
+    /**
+     * Decodes a page of search results.
+     */
+    public Page<PullRequest> decodeSearch(JsonParser parser) throws IOException {
+        List<PullRequest> pullRequests = new ArrayList<>();
+        String[] endCursor = new String[1];
+        decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "nodes" -> decodeArray(p, node -> pullRequests.add(decodePullRequest(node)));
+                case "pageInfo" -> endCursor[0] = decodeNextCursor(p);
+                default -> p.skipChildren();
+            }
+        });
+        return new Page<>(pullRequests, endCursor[0]);
+    }
+
+    /**
+     * @return the pull request, or null if the value is null
+     */
+    public PullRequest decodePullRequest(JsonParser parser) throws IOException {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.commits = new ArrayList<>();
+        pullRequest.labels = new HashSet<>();
+        // Issues only mentioned in the PR body are added later, see GitHubService#getUnlinkedIssueNumbers()
+        pullRequest.linkedIssues = new TreeSet<>();
+
+        boolean present = decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "id" -> pullRequest.id = p.getValueAsString();
+                case "number" -> pullRequest.number = p.getValueAsInt();
+                case "title" -> pullRequest.title = p.getValueAsString();
+                case "url" -> pullRequest.url = p.getValueAsString();
+                case "body" -> pullRequest.body = p.getValueAsString();
+                case "merged" -> pullRequest.merged = p.getValueAsBoolean();
+                case "createdAt" -> pullRequest.createdAt = decodeInstant(p);
+                case "mergedAt" -> pullRequest.mergedAt = decodeInstant(p);
+                case "headRefName" -> pullRequest.headRefName = p.getValueAsString();
+                case "baseRefName" -> pullRequest.baseRefName = p.getValueAsString();
+                case "author" -> pullRequest.author = decodeUser(p);
+                case "milestone" -> pullRequest.milestone = decodeMilestone(p);
+                case COMMITS, LABELS, TIMELINE_ITEMS -> decodeConnection(pullRequest, field, p);
+                default -> p.skipChildren();
+            }
+        });
+        return present ? pullRequest : null;
+    }
+
+    /**
+     * Decodes a page of a connection nested in the pull request and adds the nodes to the pull request.
+     */
+    public void decodeConnection(PullRequest pullRequest, String connection, JsonParser parser) throws IOException {
+        String[] nextCursor = new String[1];
+        boolean present = decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "nodes" -> decodeArray(p, node -> decodeNode(pullRequest, connection, node));
+                case "pageInfo" -> nextCursor[0] = decodeNextCursor(p);
+                default -> p.skipChildren();
+            }
+        });
+        if (!present) {
+            return;
+        }
+
+        if (COMMITS.equals(connection)) {
+            // Sort by commit date
+            Collections.sort(pullRequest.commits);
+        }
+        if (nextCursor[0] != null) {
+            nextPages.add(new NextPage(pullRequest, connection, nextCursor[0]));
+        }
+    }
+
+    /**
+     * @return the next page of a nested connection to fetch, or null if all the pull requests are complete
+     */
+    public NextPage pollNextPage() {
+        return nextPages.poll();
+    }
+
+    private void decodeNode(PullRequest pullRequest, String connection, JsonParser parser) throws IOException {
+        switch (connection) {
+            case COMMITS -> {
+                Commit commit = new Commit();
+                String[] url = new String[1];
+                decodeObject(parser, (field, p) -> {
+                    switch (field) {
+                        case "url" -> url[0] = p.getValueAsString();
+                        case "commit" -> decodeCommit(commit, p);
+                        default -> p.skipChildren();
+                    }
+                });
+                // we want the URL of the commit in the context of the pull request
+                commit.url = url[0];
+                pullRequest.commits.add(commit);
+            }
+            case LABELS -> decodeObject(parser, (field, p) -> {
+                if ("name".equals(field)) {
+                    pullRequest.labels.add(p.getValueAsString());
+                } else {
+                    p.skipChildren();
+                }
+            });
+            case TIMELINE_ITEMS -> decodeObject(parser, (field, p) -> {
+                if (!"subject".equals(field)) {
+                    p.skipChildren();
+                    return;
+                }
+                // Linked issues are available through CONNECTED and DISCONNECTED events
+                // As these events can happen multiple times, we need to retain only events in an odd number
+                // (even means the issue was connected and disconnected)
+                Issue issue = decodeIssue(p);
+                if (issue != null && !pullRequest.linkedIssues.add(issue)) {
+                    pullRequest.linkedIssues.remove(issue);
+                }
+            });
+            default -> throw new IllegalArgumentException("Unknown pull request connection: " + connection);
+        }
+    }
+
+    private static void decodeCommit(Commit commit, JsonParser parser) throws IOException {
+        decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "oid" -> commit.oid = p.getValueAsString();
+                case "abbreviatedOid" -> commit.abbreviatedOid = p.getValueAsString();
+                case "message" -> commit.message = p.getValueAsString();
+                case "url" -> commit.url = p.getValueAsString();
+                case "committedDate" -> commit.committedDate = decodeInstant(p);
+                default -> p.skipChildren();
+            }
+        });
+    }
+
+    /**
+     * @return the issue, or null if the value is null
+     */
+    public static Issue decodeIssue(JsonParser parser) throws IOException {
+        Issue issue = new Issue();
+        boolean present = decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "id" -> issue.id = p.getValueAsString();
+                case "number" -> issue.number = p.getValueAsInt();
+                case "title" -> issue.title = p.getValueAsString();
+                case "url" -> issue.url = p.getValueAsString();
+                case "body" -> issue.body = p.getValueAsString();
+                case "author" -> issue.author = decodeUser(p);
+                default -> p.skipChildren();
+            }
+        });
+        return present ? issue : null;
+    }
+
+    private static User decodeUser(JsonParser parser) throws IOException {
+        User user = new User();
+        boolean present = decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "login" -> user.login = p.getValueAsString();
+                case "avatarUrl" -> user.avatarUrl = p.getValueAsString();
+                case "name" -> user.name = p.getValueAsString();
+                case "url" -> user.url = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        });
+        return present ? user : null;
+    }
+
+    private static Milestone decodeMilestone(JsonParser parser) throws IOException {
+        String[] idAndTitle = new String[2];
+        boolean present = decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "id" -> idAndTitle[0] = p.getValueAsString();
+                case "title" -> idAndTitle[1] = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        });
+        return present ? new Milestone(idAndTitle[0], idAndTitle[1], null) : null;
+    }
+
+    private static Instant decodeInstant(JsonParser parser) throws IOException {
+        String value = parser.getValueAsString();
+        return value != null ? Instant.parse(value) : null;
+    }
+
+    /**
+     * A page of results.
+     *
+     * @param endCursor the cursor of the next page, or null if this is the last page
+     */
+    public record Page<T>(List<T> nodes, String endCursor) {
+    }
+
+    /**
+     * A page of a connection nested in a pull request that is still to fetch.
+     */
+    public record NextPage(PullRequest pullRequest, String connection, String cursor) {
+    }
+}
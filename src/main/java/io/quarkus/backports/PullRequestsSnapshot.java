@@ -0,0 +1,163 @@
+package io.quarkus.backports;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import io.quarkus.backports.model.PullRequest;
+
+/**
+ * An immutable generation of the pull requests known by a {@link GitHubService}.
+ * <p>
+ * A snapshot is never modified: each change creates a new generation with a higher version, that is swapped atomically,
+ * so readers always see a consistent set of pull requests whatever the refreshes running concurrently.
+ * <p>
+ * Each pull request remembers the version it was written at: the results of a query started before a more recent change
+ * of a pull request, e.g. a webhook event or a pull request marked as backported, don't override this change.
+ * The pull requests shared by the snapshots must not be modified either, they are copied before being changed.
+ */
+final class PullRequestsSnapshot {
+
+    static final PullRequestsSnapshot EMPTY = new PullRequestsSnapshot(0, Map.of(), Set.of());
+
+    private final long version;
+
+    private final Map<Integer, Entry> pullRequests;
+
+    /**
+     * The numbers of the pull requests to backport, whatever their backport label.
+     */
+    private final Set<Integer> backportCandidates;
+
+    private PullRequestsSnapshot(long version, Map<Integer, Entry> pullRequests, Set<Integer> backportCandidates) {
+        this.version = version;
+        this.pullRequests = pullRequests;
+        this.backportCandidates = backportCandidates;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * @return the pull request or null if it is not part of this generation
+     */
+    PullRequest get(int number) {
+        Entry entry = pullRequests.get(number);
+        return entry != null ? entry.pullRequest() : null;
+    }
+
+    Collection<PullRequest> pullRequests() {
+        List<PullRequest> result = new ArrayList<>(pullRequests.size());
+        for (Entry entry : pullRequests.values()) {
+            result.add(entry.pullRequest());
+        }
+        return result;
+    }
+
+    Collection<PullRequest> backportCandidates() {
+        List<PullRequest> result = new ArrayList<>(backportCandidates.size());
+        for (Integer number : backportCandidates) {
+            result.add(pullRequests.get(number).pullRequest());
+        }
+        return result;
+    }
+
+    /**
+     * Adds the pull requests returned by a query started at version {@code fetchedAt}.
+     */
+    PullRequestsSnapshot withFetched(Collection<PullRequest> fetched, long fetchedAt) {
+        long nextVersion = version + 1;
+        Map<Integer, Entry> nextPullRequests = new HashMap<>(pullRequests);
+        for (PullRequest pullRequest : fetched) {
+            if (!isChangedSince(pullRequest.number, fetchedAt)) {
+                nextPullRequests.put(pullRequest.number, new Entry(pullRequest, nextVersion));
+            }
+        }
+        return new PullRequestsSnapshot(nextVersion, Map.copyOf(nextPullRequests), backportCandidates);
+    }
+
+    /**
+     * Replaces the pull requests to backport with the result of a full sync started at version {@code fetchedAt}.
+     * <p>
+     * It is also a new start: the pull requests that are not to backport and that didn't change since the sync started are
+     * dropped, they will be fetched again if they are needed.
+     */
+    PullRequestsSnapshot withBackportCandidates(Collection<PullRequest> candidates, long fetchedAt,
+            Predicate<PullRequest> isBackportCandidate) {
+        long nextVersion = version + 1;
+        Map<Integer, Entry> nextPullRequests = new HashMap<>();
+        Set<Integer> nextBackportCandidates = new HashSet<>();
+        for (Entry entry : pullRequests.values()) {
+            if (entry.version() > fetchedAt) {
+                nextPullRequests.put(entry.pullRequest().number, entry);
+                if (isBackportCandidate.test(entry.pullRequest())) {
+                    nextBackportCandidates.add(entry.pullRequest().number);
+                }
+            }
+        }
+        for (PullRequest pullRequest : candidates) {
+            if (nextPullRequests.putIfAbsent(pullRequest.number, new Entry(pullRequest, nextVersion)) == null) {
+                nextBackportCandidates.add(pullRequest.number);
+            }
+        }
+        return new PullRequestsSnapshot(nextVersion, Map.copyOf(nextPullRequests), Set.copyOf(nextBackportCandidates));
+    }
+
+    /**
+     * Applies an incremental sync started at version {@code fetchedAt}: the pull requests updated since the previous sync
+     * that are still to backport and the numbers of the ones that are not anymore.
+     */
+    PullRequestsSnapshot withBackportCandidatesChanges(Collection<PullRequest> updated, Set<Integer> removed,
+            long fetchedAt) {
+        long nextVersion = version + 1;
+        Map<Integer, Entry> nextPullRequests = new HashMap<>(pullRequests);
+        Set<Integer> nextBackportCandidates = new HashSet<>(backportCandidates);
+        for (PullRequest pullRequest : updated) {
+            if (!isChangedSince(pullRequest.number, fetchedAt)) {
+                nextPullRequests.put(pullRequest.number, new Entry(pullRequest, nextVersion));
+                nextBackportCandidates.add(pullRequest.number);
+            }
+        }
+        for (Integer number : removed) {
+            if (!isChangedSince(number, fetchedAt)) {
+                nextBackportCandidates.remove(number);
+            }
+        }
+        return new PullRequestsSnapshot(nextVersion, Map.copyOf(nextPullRequests), Set.copyOf(nextBackportCandidates));
+    }
+
+    /**
+     * Applies changes we know about for sure, e.g. from a webhook event or a mutation we made, they always win.
+     */
+    PullRequestsSnapshot withChanged(Collection<PullRequest> changed, Predicate<PullRequest> isBackportCandidate) {
+        if (changed.isEmpty()) {
+            return this;
+        }
+        long nextVersion = version + 1;
+        Map<Integer, Entry> nextPullRequests = new HashMap<>(pullRequests);
+        Set<Integer> nextBackportCandidates = new HashSet<>(backportCandidates);
+        for (PullRequest pullRequest : changed) {
+            nextPullRequests.put(pullRequest.number, new Entry(pullRequest, nextVersion));
+            if (isBackportCandidate.test(pullRequest)) {
+                nextBackportCandidates.add(pullRequest.number);
+            } else {
+                nextBackportCandidates.remove(pullRequest.number);
+            }
+        }
+        return new PullRequestsSnapshot(nextVersion, Map.copyOf(nextPullRequests), Set.copyOf(nextBackportCandidates));
+    }
+
+    private boolean isChangedSince(int number, long fetchedAt) {
+        Entry entry = pullRequests.get(number);
+        return entry != null && entry.version() > fetchedAt;
+    }
+
+    private record Entry(PullRequest pullRequest, long version) {
+    }
+}
@@ -0,0 +1,328 @@
+package io.quarkus.backports.graphql;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.resteasy.reactive.RestResponse;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.backports.graphql.JsonParsers.FieldDecoder;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+/**
+ * Executes the GraphQL queries against the GitHub API while keeping track of the rate limit budget.
+ * <p>
+ * Each query is tagged with an operation name, the name of the template it comes from, so that the latency, the payload
+ * sizes, the errors and the cost reported by GitHub can be broken down per operation.
+ * <p>
+ * Identical queries, i.e. same document and same variables, sent while one of them is in flight share its response: only
+ * the first one is sent to GitHub, the others wait for its response and decode it on their own. Mutations are always sent.
+ * <p>
+ * The queries are sent by a non-blocking client: the {@code graphqlAsync} methods can be composed on the event loop, the
+ * {@code graphql} ones wait for the response.
+ */
+@ApplicationScoped
+public class GitHubGraphQL {
+
+    private static final String OPERATION_TAG = "operation";
+
+    @Inject
+    @RestClient
+    GraphQLClient graphQLClient;
+
+    @Inject
+    RateLimitBudget rateLimitBudget;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final String token;
+
+    /**
+     * The responses of the queries in flight keyed by request body.
+     */
+    private final Map<String, CompletableFuture<byte[]>> inFlightResponses = new ConcurrentHashMap<>();
+
+    @Inject
+    public GitHubGraphQL(@ConfigProperty(name = "backports.token") String token) {
+        this.token = "Bearer " + token;
+    }
+
+    public JsonObject graphql(GraphQLOperation operation, JsonObject variables) {
+        return graphql(operation, variables, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Executes the query, blocking the caller until the response has been received: not to be used on the event loop.
+     */
+    public JsonObject graphql(GraphQLOperation operation, JsonObject variables, Priority priority) {
+        return graphqlAsync(operation, variables, priority).await().indefinitely();
+    }
+
+    public Uni<JsonObject> graphqlAsync(GraphQLOperation operation, JsonObject variables) {
+        return graphqlAsync(operation, variables, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Executes the query without blocking the caller.
+     */
+    public Uni<JsonObject> graphqlAsync(GraphQLOperation operation, JsonObject variables, Priority priority) {
+        return execute(operation, variables, priority, responseBytes -> {
+            JsonObject json = new JsonObject(Buffer.buffer(responseBytes));
+            JsonObject data = json.getJsonObject("data");
+            JsonObject rateLimit = data != null ? data.getJsonObject("rateLimit") : null;
+            return new Response<>(json, json.getJsonArray("errors"), rateLimit != null ? rateLimit.getInteger("cost") : null);
+        }).map(Response::value);
+    }
+
+    public JsonArray graphql(GraphQLOperation operation, JsonObject variables, FieldDecoder decoder) {
+        return graphql(operation, variables, Priority.INTERACTIVE, decoder);
+    }
+
+    /**
+     * Same as {@link #graphqlAsync(GraphQLOperation, JsonObject, Priority, FieldDecoder)}, blocking the caller until the
+     * response has been decoded: not to be used on the event loop.
+     */
+    public JsonArray graphql(GraphQLOperation operation, JsonObject variables, Priority priority,
+            FieldDecoder decoder) {
+        return graphqlAsync(operation, variables, priority, decoder).await().indefinitely();
+    }
+
+    /**
+     * Executes the query without blocking the caller and streams the fields of the {@code data} object of the response to
+     * the decoder.
+     * <p>
+     * Use it for the large responses: no JSON tree is built, the model objects are created while the response is read.
+     * The {@code rateLimit} field is not passed to the decoder, it is consumed here to record the cost of the query.
+     *
+     * @return the errors reported by GitHub, or {@code null} if there are none
+     */
+    public Uni<JsonArray> graphqlAsync(GraphQLOperation operation, JsonObject variables, Priority priority,
+            FieldDecoder decoder) {
+        return execute(operation, variables, priority, responseBytes -> {
+            try (JsonParser parser = DatabindCodec.mapper().createParser(responseBytes)) {
+                return decode(parser, decoder);
+            } catch (IOException e) {
+                throw new DecodeException("Unable to decode the " + operation.name() + " response: " + e.getMessage(), e);
+            }
+        }).map(Response::errors);
+    }
+
+    private <T> Uni<Response<T>> execute(GraphQLOperation graphQLOperation, JsonObject variables, Priority priority,
+            Function<byte[], Response<T>> decoder) {
+        byte[] requestBytes = graphQLOperation.request(variables).toBuffer().getBytes();
+        if (graphQLOperation.isMutation()) {
+            return send(graphQLOperation, requestBytes, priority, decoder, new CompletableFuture<>());
+        }
+
+        String key = new String(requestBytes, StandardCharsets.UTF_8);
+        // the queries in flight are looked up when the query is actually sent, i.e. on subscription
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<byte[]> response = new CompletableFuture<>();
+            CompletableFuture<byte[]> inFlightResponse = inFlightResponses.putIfAbsent(key, response);
+            if (inFlightResponse != null) {
+                countCoalesced(graphQLOperation.name());
+                // a copy so that a query giving up on the response doesn't cancel it for the others
+                return Uni.createFrom().completionStage(inFlightResponse.copy())
+                        .map(decoder)
+                        // the budget depends on the priority, the query we waited for might have had a lower one
+                        .onFailure(RateLimitExceededException.class)
+                        .recoverWithUni(() -> send(graphQLOperation, requestBytes, priority, decoder,
+                                new CompletableFuture<>()));
+            }
+
+            return send(graphQLOperation, requestBytes, priority, decoder, response)
+                    // a no-op if the response has been received and only its decoding failed
+                    .onFailure().invoke(response::completeExceptionally)
+                    .onTermination().invoke((decoded, failure, cancelled) -> {
+                        if (cancelled) {
+                            response.cancel(false);
+                        }
+                        inFlightResponses.remove(key, response);
+                    });
+        });
+    }
+
+    /**
+     * Sends the query to GitHub, the response is passed to the queries waiting for it before being decoded.
+     * <p>
+     * When the budget is running low, the query is delayed by a timer: no thread waits for it.
+     */
+    private <T> Uni<Response<T>> send(GraphQLOperation graphQLOperation, byte[] requestBytes, Priority priority,
+            Function<byte[], Response<T>> decoder, CompletableFuture<byte[]> pendingResponse) {
+        String operation = graphQLOperation.name();
+
+        return Uni.createFrom().item(() -> rateLimitBudget.acquire(priority))
+                .onItem().transformToUni(delay -> delay.isZero()
+                        ? Uni.createFrom().voidItem()
+                        : Uni.createFrom().voidItem().onItem().delayIt().by(delay))
+                .onItem().transformToUni(ignored -> {
+                    DistributionSummary.builder("github.graphql.request.size")
+                            .description("Size of the GraphQL queries sent to GitHub")
+                            .baseUnit("bytes")
+                            .tag(OPERATION_TAG, operation)
+                            .publishPercentileHistogram()
+                            .register(registry)
+                            .record(requestBytes.length);
+
+                    Timer.Sample sample = Timer.start(registry);
+                    return graphQLClient.graphql(token, requestBytes)
+                            .onFailure(WebApplicationException.class).invoke(failure -> {
+                                jakarta.ws.rs.core.Response response = ((WebApplicationException) failure).getResponse();
+                                // GitHub also sends the rate limit headers when we are over the limit
+                                rateLimitBudget.update(response::getHeaderString);
+                                countError(operation, "HTTP_" + response.getStatus());
+                            })
+                            .onFailure(ProcessingException.class).invoke(() -> countError(operation, "IO"))
+                            .map(response -> receive(operation, response, decoder, pendingResponse))
+                            .onItemOrFailure().invoke((decoded, failure) -> sample.stop(Timer.builder("github.graphql.requests")
+                                    .description("Duration of the GraphQL queries sent to GitHub")
+                                    .tag(OPERATION_TAG, operation)
+                                    .tag("outcome", outcome(decoded, failure))
+                                    .publishPercentileHistogram()
+                                    .register(registry)));
+                });
+    }
+
+    private <T> Response<T> receive(String operation, RestResponse<byte[]> response, Function<byte[], Response<T>> decoder,
+            CompletableFuture<byte[]> pendingResponse) {
+        rateLimitBudget.update(response::getHeaderString);
+
+        byte[] responseBytes = response.getEntity();
+        pendingResponse.complete(responseBytes);
+        DistributionSummary.builder("github.graphql.response.size")
+                .description("Size of the GraphQL responses received from GitHub")
+                .baseUnit("bytes")
+                .tag(OPERATION_TAG, operation)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(responseBytes.length);
+
+        Response<T> decoded;
+        try {
+            decoded = decoder.apply(responseBytes);
+        } catch (DecodeException e) {
+            countError(operation, "DECODE");
+            throw e;
+        }
+        JsonArray errors = decoded.errors();
+        if (errors != null) {
+            for (int i = 0; i < errors.size(); i++) {
+                countError(operation, errors.getJsonObject(i).getString("type", "UNKNOWN"));
+            }
+        }
+        if (decoded.cost() != null) {
+            recordCost(operation, decoded.cost());
+        }
+        return decoded;
+    }
+
+    private static String outcome(Response<?> decoded, Throwable failure) {
+        if (failure instanceof WebApplicationException) {
+            return "HTTP_ERROR";
+        } else if (failure instanceof ProcessingException) {
+            return "IO_ERROR";
+        } else if (failure instanceof DecodeException) {
+            return "DECODE_ERROR";
+        } else if (failure != null) {
+            return "ERROR";
+        } else if (decoded.errors() != null) {
+            return "GRAPHQL_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    /**
+     * Reads the response: the {@code data} fields are passed to the decoder, the errors and the cost are kept aside.
+     */
+    private static Response<Void> decode(JsonParser parser, FieldDecoder decoder) throws IOException {
+        JsonArray errors = null;
+        Integer cost = null;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String dataField = parser.currentName();
+                    parser.nextToken();
+                    if ("rateLimit".equals(dataField)) {
+                        JsonNode rateLimit = parser.readValueAsTree();
+                        cost = rateLimit != null && rateLimit.has("cost") ? rateLimit.get("cost").asInt() : null;
+                    } else {
+                        decoder.decode(dataField, parser);
+                    }
+                }
+            } else if ("errors".equals(field) && value == JsonToken.START_ARRAY) {
+                // errors are small and are consumed as JSON by the callers
+                errors = new JsonArray(parser.readValueAs(List.class));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Response<>(null, errors, cost);
+    }
+
+    /**
+     * Counts the queries that were not sent as an identical query was already in flight.
+     */
+    private void countCoalesced(String operation) {
+        Counter.builder("github.graphql.coalesced")
+                .description("GraphQL queries sharing the response of an identical query already in flight")
+                .tag(OPERATION_TAG, operation)
+                .register(registry)
+                .increment();
+    }
+
+    private void countError(String operation, String type) {
+        Counter.builder("github.graphql.errors")
+                .description("Errors returned for the GraphQL queries sent to GitHub")
+                .tag(OPERATION_TAG, operation)
+                .tag("type", type)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records the cost of the query, as reported by GitHub when the query asks for {@code rateLimit { cost }}.
+     * <p>
+     * Mutations don't report their cost.
+     */
+    private void recordCost(String operation, int cost) {
+        DistributionSummary.builder("github.graphql.cost")
+                .description("GitHub API points consumed by the GraphQL queries")
+                .tag(OPERATION_TAG, operation)
+                .register(registry)
+                .record(cost);
+    }
+
+    private record Response<T>(T value, JsonArray errors, Integer cost) {
+    }
+}
@@ -1,16 +1,28 @@
 package io.quarkus.backports.graphql;
 
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestResponse;
 
-import io.vertx.core.json.JsonObject;
+import io.smallrye.mutiny.Uni;
 
+/**
+ * Low level GitHub GraphQL client, use {@link GitHubGraphQL} instead.
+ * <p>
+ * The payloads are exchanged as raw bytes so that we know their exact size. The client is non-blocking: no thread waits
+ * for GitHub to answer.
+ */
 @RegisterRestClient(baseUri = "https://api.github.com/graphql")
 public interface GraphQLClient {
 
     @POST
-    JsonObject graphql(@HeaderParam(HttpHeaders.AUTHORIZATION) String authentication, JsonObject query);
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<RestResponse<byte[]>> graphql(@HeaderParam(HttpHeaders.AUTHORIZATION) String authentication, byte[] query);
 }
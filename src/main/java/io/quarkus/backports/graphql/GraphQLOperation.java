@@ -0,0 +1,191 @@
+package io.quarkus.backports.graphql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.quarkus.qute.Template;
+import io.quarkus.qute.TemplateInstance;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A GraphQL document ready to be sent: rendered from its template, minified and with its variable definitions parsed.
+ * <p>
+ * Constant operations, i.e. templates without any expression, are compiled once and reused, only the variables change
+ * from one query to another. Operations with a dynamic shape, such as a variable number of aliases, are rendered for each
+ * query.
+ */
+public final class GraphQLOperation {
+
+    private static final Pattern VARIABLE_DEFINITION = Pattern.compile("\\$(\\w+)\\s*:\\s*([\\w\\[\\]!]+)");
+
+    private static final Map<String, GraphQLOperation> CONSTANT_OPERATIONS = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final String document;
+
+    /**
+     * The variables defined by the operation and whether they are required.
+     */
+    private final Map<String, Boolean> variables;
+
+    private GraphQLOperation(String name, String document) {
+        this.name = name;
+        this.document = minify(document);
+        this.variables = parseVariableDefinitions(this.document);
+    }
+
+    public static GraphQLOperation of(String name, String document) {
+        return new GraphQLOperation(name, document);
+    }
+
+    /**
+     * Returns the operation of a template without any expression, rendering it the first time only.
+     *
+     * @throws IllegalArgumentException if the template has expressions, use {@link #render(TemplateInstance)} instead
+     */
+    public static GraphQLOperation compile(TemplateInstance templateInstance) {
+        Template template = templateInstance.getTemplate();
+        GraphQLOperation operation = CONSTANT_OPERATIONS.get(template.getId());
+        if (operation != null) {
+            return operation;
+        }
+        if (!template.getExpressions().isEmpty()) {
+            throw new IllegalArgumentException("Template " + template.getId() + " is not constant, it has to be rendered");
+        }
+        return CONSTANT_OPERATIONS.computeIfAbsent(template.getId(),
+                id -> new GraphQLOperation(getOperationName(id), templateInstance.render()));
+    }
+
+    /**
+     * Renders a template with a dynamic shape.
+     */
+    public static GraphQLOperation render(TemplateInstance templateInstance) {
+        return new GraphQLOperation(getOperationName(templateInstance.getTemplate().getId()), templateInstance.render());
+    }
+
+    /**
+     * @return the name of the template, used to tag the query metrics
+     */
+    public String name() {
+        return name;
+    }
+
+    public String document() {
+        return document;
+    }
+
+    /**
+     * @return whether the operation is a mutation, i.e. whether sending it twice is not the same as sending it once
+     */
+    public boolean isMutation() {
+        return document.startsWith("mutation");
+    }
+
+    /**
+     * @return the variables defined by the operation and whether they are required
+     */
+    public Map<String, Boolean> variables() {
+        return Collections.unmodifiableMap(variables);
+    }
+
+    /**
+     * Builds the request body, checking the variables against the definitions of the operation.
+     *
+     * @throws IllegalArgumentException if a variable is not defined by the operation or if a required variable is missing
+     */
+    public JsonObject request(JsonObject variableValues) {
+        for (String variable : variableValues.fieldNames()) {
+            if (!variables.containsKey(variable)) {
+                throw new IllegalArgumentException("Variable $" + variable + " is not defined by operation " + name);
+            }
+        }
+        for (Map.Entry<String, Boolean> variable : variables.entrySet()) {
+            if (variable.getValue() && variableValues.getValue(variable.getKey()) == null) {
+                throw new IllegalArgumentException("Required variable $" + variable.getKey() + " of operation " + name
+                        + " is missing");
+            }
+        }
+
+        JsonObject request = new JsonObject().put("query", document);
+        if (!variableValues.isEmpty()) {
+            request.put("variables", variableValues);
+        }
+        return request;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + document;
+    }
+
+    private static String getOperationName(String templateId) {
+        String name = templateId.substring(templateId.lastIndexOf('/') + 1);
+        int extension = name.indexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * The variable definitions are between the operation name and the selection set.
+     */
+    private static Map<String, Boolean> parseVariableDefinitions(String document) {
+        int selectionSet = document.indexOf('{');
+        String header = selectionSet >= 0 ? document.substring(0, selectionSet) : document;
+        Map<String, Boolean> variables = new LinkedHashMap<>();
+        Matcher matcher = VARIABLE_DEFINITION.matcher(header);
+        while (matcher.find()) {
+            variables.put(matcher.group(1), matcher.group(2).endsWith("!"));
+        }
+        return variables;
+    }
+
+    /**
+     * Removes the comments and the insignificant whitespaces, string literals are kept as is.
+     */
+    static String minify(String document) {
+        StringBuilder minified = new StringBuilder(document.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < document.length(); i++) {
+            char c = document.charAt(i);
+            if (c == '"') {
+                int end = i + 1;
+                while (end < document.length() && document.charAt(end) != '"') {
+                    end += document.charAt(end) == '\\' ? 2 : 1;
+                }
+                appendToken(minified, document.substring(i, Math.min(end + 1, document.length())), pendingSpace);
+                pendingSpace = false;
+                i = end;
+            } else if (c == '#') {
+                while (i + 1 < document.length() && document.charAt(i + 1) != '\n') {
+                    i++;
+                }
+                pendingSpace = true;
+            } else if (Character.isWhitespace(c) || c == ',') {
+                pendingSpace = true;
+            } else {
+                appendToken(minified, String.valueOf(c), pendingSpace);
+                pendingSpace = false;
+            }
+        }
+        return minified.toString();
+    }
+
+    /**
+     * A separator is only needed between two names, numbers or variables.
+     */
+    private static void appendToken(StringBuilder minified, String token, boolean pendingSpace) {
+        if (pendingSpace && minified.length() > 0 && isNameChar(minified.charAt(minified.length() - 1))
+                && (isNameChar(token.charAt(0)) || token.charAt(0) == '$' || token.charAt(0) == '"')) {
+            minified.append(' ');
+        }
+        minified.append(token);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
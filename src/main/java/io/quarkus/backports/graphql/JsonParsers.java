@@ -0,0 +1,132 @@
+package io.quarkus.backports.graphql;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Helpers to decode the GraphQL responses with a streaming {@link JsonParser}.
+ * <p>
+ * All the methods expect the parser to be positioned on the first token of a value and leave it on the last token of this
+ * value.
+ */
+public final class JsonParsers {
+
+    private JsonParsers() {
+    }
+
+    /**
+     * Walks down the nested objects along the path and decodes the value found at the end of the path, everything else is
+     * skipped.
+     */
+    public static void decodePath(JsonParser parser, ValueDecoder decoder, String... path) throws IOException {
+        decodePath(parser, decoder, path, 0);
+    }
+
+    private static void decodePath(JsonParser parser, ValueDecoder decoder, String[] path, int depth) throws IOException {
+        if (depth == path.length) {
+            decoder.decode(parser);
+            return;
+        }
+        if (!startObject(parser)) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (path[depth].equals(field)) {
+                decodePath(parser, decoder, path, depth + 1);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * @return a decoder that only decodes the value of the given field and skips the others
+     */
+    public static FieldDecoder onField(String name, ValueDecoder decoder) {
+        return (field, parser) -> {
+            if (name.equals(field)) {
+                decoder.decode(parser);
+            } else {
+                parser.skipChildren();
+            }
+        };
+    }
+
+    /**
+     * Decodes the fields of an object.
+     *
+     * @return false if the value is null
+     */
+    public static boolean decodeObject(JsonParser parser, FieldDecoder decoder) throws IOException {
+        if (!startObject(parser)) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            decoder.decode(field, parser);
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the elements of an array, null elements are skipped.
+     */
+    public static void decodeArray(JsonParser parser, ValueDecoder decoder) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array but got " + parser.currentToken());
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_NULL) {
+                decoder.decode(parser);
+            }
+        }
+    }
+
+    /**
+     * Decodes a {@code pageInfo} object.
+     *
+     * @return the cursor of the next page, or null if this is the last page
+     */
+    public static String decodeNextCursor(JsonParser parser) throws IOException {
+        boolean[] hasNextPage = new boolean[1];
+        String[] endCursor = new String[1];
+        decodeObject(parser, (field, p) -> {
+            switch (field) {
+                case "hasNextPage" -> hasNextPage[0] = p.getValueAsBoolean();
+                case "endCursor" -> endCursor[0] = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        });
+        return hasNextPage[0] ? endCursor[0] : null;
+    }
+
+    private static boolean startObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an object but got " + parser.currentToken());
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    public interface ValueDecoder {
+        void decode(JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface FieldDecoder {
+        void decode(String field, JsonParser parser) throws IOException;
+    }
+}
@@ -0,0 +1,14 @@
+package io.quarkus.backports.graphql;
+
+public enum Priority {
+
+    /**
+     * A user is waiting for the result.
+     */
+    INTERACTIVE,
+
+    /**
+     * Background work that can be deferred when the budget is running low.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,174 @@
+package io.quarkus.backports.graphql;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps track of the GitHub API point budget reported in the {@code X-RateLimit-*} headers.
+ * <p>
+ * When the budget is running low, queries are slowed down so that the remaining points are spread until the reset, and
+ * background queries are rejected so that we keep some budget for the users.
+ */
+@ApplicationScoped
+public class RateLimitBudget {
+
+    private static final Logger LOG = Logger.getLogger(RateLimitBudget.class);
+
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String USED_HEADER = "X-RateLimit-Used";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Background queries are rejected when we have less points than that.
+     */
+    @ConfigProperty(name = "backports.rate-limit.background-reserve", defaultValue = "1000")
+    long backgroundReserve;
+
+    /**
+     * Queries are slowed down when we have less points than that.
+     */
+    @ConfigProperty(name = "backports.rate-limit.throttle-threshold", defaultValue = "500")
+    long throttleThreshold;
+
+    /**
+     * Maximum delay applied to a query when slowing down.
+     */
+    @ConfigProperty(name = "backports.rate-limit.max-delay", defaultValue = "2s")
+    Duration maxDelay;
+
+    private volatile State state;
+
+    private Counter throttledCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("github.ratelimit.limit", this, b -> b.state != null ? b.state.limit() : Double.NaN)
+                .description("GitHub API point budget per window")
+                .register(registry);
+        Gauge.builder("github.ratelimit.remaining", this, b -> b.state != null ? b.state.remaining() : Double.NaN)
+                .description("GitHub API points remaining in the current window")
+                .register(registry);
+        Gauge.builder("github.ratelimit.used", this, b -> b.state != null ? b.state.used() : Double.NaN)
+                .description("GitHub API points used in the current window")
+                .register(registry);
+        Gauge.builder("github.ratelimit.reset", this,
+                b -> b.state != null ? Math.max(0, Duration.between(Instant.now(), b.state.resetAt()).toSeconds())
+                        : Double.NaN)
+                .description("Seconds until the GitHub API budget is reset")
+                .baseUnit("seconds")
+                .register(registry);
+        throttledCounter = Counter.builder("github.ratelimit.throttled")
+                .description("Queries slowed down because the GitHub API budget is running low")
+                .register(registry);
+    }
+
+    /**
+     * Updates the budget from the headers of a GitHub response.
+     */
+    public void update(Function<String, String> headers) {
+        String remaining = headers.apply(REMAINING_HEADER);
+        String reset = headers.apply(RESET_HEADER);
+        if (remaining == null || reset == null) {
+            return;
+        }
+
+        try {
+            String limit = headers.apply(LIMIT_HEADER);
+            String used = headers.apply(USED_HEADER);
+            state = new State(limit != null ? Long.parseLong(limit) : -1,
+                    Long.parseLong(remaining),
+                    used != null ? Long.parseLong(used) : -1,
+                    Instant.ofEpochSecond(Long.parseLong(reset)));
+        } catch (NumberFormatException e) {
+            LOG.warnf("Unable to parse the rate limit headers: remaining=%s, reset=%s", remaining, reset);
+        }
+    }
+
+    /**
+     * Whether a query with the given priority would be accepted right now.
+     */
+    public boolean allows(Priority priority) {
+        try {
+            check(priority, state, Instant.now());
+            return true;
+        } catch (RateLimitExceededException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns how long a query with the given priority must be delayed before being sent.
+     * <p>
+     * The caller is responsible for the delay, so that it doesn't need to block a thread.
+     *
+     * @return {@link Duration#ZERO} if the query can be sent right now
+     * @throws RateLimitExceededException if the query should not be sent at all
+     */
+    public Duration acquire(Priority priority) {
+        State current = state;
+        Instant now = Instant.now();
+        if (!check(priority, current, now) || current.remaining() >= throttleThreshold) {
+            return Duration.ZERO;
+        }
+
+        // spread the remaining points until the reset
+        Duration delay = Duration.between(now, current.resetAt()).dividedBy(Math.max(1, current.remaining()));
+        if (delay.compareTo(maxDelay) > 0) {
+            delay = maxDelay;
+        }
+        throttledCounter.increment();
+        LOG.debugf("Only %d points left until %s, delaying query by %s", current.remaining(), current.resetAt(), delay);
+        return delay;
+    }
+
+    /**
+     * @return false if we don't know about the budget or if the budget has been reset since we last heard of it
+     */
+    private boolean check(Priority priority, State current, Instant now) {
+        if (current == null || !current.resetAt().isAfter(now)) {
+            return false;
+        }
+        if (current.remaining() <= 0) {
+            throw new RateLimitExceededException("GitHub API budget exhausted until " + current.resetAt());
+        }
+        if (priority == Priority.BACKGROUND && current.remaining() < backgroundReserve) {
+            throw new RateLimitExceededException("Deferring background work: only " + current.remaining()
+                    + " GitHub API points left until " + current.resetAt());
+        }
+        return true;
+    }
+
+    public long getRemaining() {
+        State current = state;
+        return current != null ? current.remaining() : -1;
+    }
+
+    public long getLimit() {
+        State current = state;
+        return current != null ? current.limit() : -1;
+    }
+
+    public Instant getResetAt() {
+        State current = state;
+        return current != null ? current.resetAt() : null;
+    }
+
+    private record State(long limit, long remaining, long used, Instant resetAt) {
+    }
+}
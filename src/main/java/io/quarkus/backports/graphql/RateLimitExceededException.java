@@ -0,0 +1,11 @@
+package io.quarkus.backports.graphql;
+
+/**
+ * Thrown when we refuse to send a query to avoid exhausting the GitHub API budget.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
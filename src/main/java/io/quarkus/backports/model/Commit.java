@@ -1,10 +1,8 @@
 package io.quarkus.backports.model;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.Objects;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-
 public class Commit implements Comparable<Commit> {
 
     public String oid;
@@ -15,8 +13,7 @@ public class Commit implements Comparable<Commit> {
 
     public String url;
 
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
-    public Date committedDate;
+    public Instant committedDate;
 
     @Override
     public boolean equals(Object o) {
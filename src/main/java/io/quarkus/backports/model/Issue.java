@@ -12,6 +12,17 @@ public class Issue implements Comparable<Issue> {
     public String url;
     public User author;
 
+    public Issue copy() {
+        Issue copy = new Issue();
+        copy.id = id;
+        copy.number = number;
+        copy.title = title;
+        copy.body = body;
+        copy.url = url;
+        copy.author = author;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
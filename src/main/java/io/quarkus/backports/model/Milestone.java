@@ -1,12 +1,7 @@
 package io.quarkus.backports.model;
 
-import java.io.IOException;
 import java.util.Objects;
 
-import jakarta.enterprise.inject.spi.CDI;
-
-import io.quarkus.backports.GitHubService;
-
 public record Milestone(String id, String title, String minorVersion) {
 
     @Override
@@ -22,12 +17,4 @@ public record Milestone(String id, String title, String minorVersion) {
     public int hashCode() {
         return Objects.hash(title);
     }
-
-    public static Milestone fromString(String title) throws IOException {
-        final GitHubService service = CDI.current().select(GitHubService.class).get();
-        return service.getOpenMilestones().stream()
-                .filter(milestone -> milestone.title.equals(title))
-                .findFirst()
-                .orElse(null);
-    }
 }
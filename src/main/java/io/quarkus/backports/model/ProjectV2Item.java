@@ -1,8 +0,0 @@
-package io.quarkus.backports.model;
-
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-
-@JsonIgnoreProperties(ignoreUnknown = true)
-public class ProjectV2Item {
-    public String id;
-}
\ No newline at end of file
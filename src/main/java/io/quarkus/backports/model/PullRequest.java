@@ -1,16 +1,11 @@
 package io.quarkus.backports.model;
 
-import java.io.IOException;
-import java.util.Date;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-import jakarta.enterprise.inject.spi.CDI;
-
-import io.quarkus.backports.GitHubService;
-
 public class PullRequest implements Comparable<PullRequest> {
 
     private static final Pattern BACKPORT_PULL_REQUEST_PATTERN = Pattern
@@ -26,11 +21,11 @@ public class PullRequest implements Comparable<PullRequest> {
 
     public String title;
 
-    public Date createdAt;
+    public Instant createdAt;
 
     public boolean merged;
 
-    public Date mergedAt;
+    public Instant mergedAt;
 
     public Milestone milestone;
 
@@ -53,6 +48,29 @@ public class PullRequest implements Comparable<PullRequest> {
         return BACKPORT_PULL_REQUEST_PATTERN.matcher(headRefName).matches();
     }
 
+    /**
+     * @return a shallow copy of this pull request, the pull requests that have been published must not be modified
+     */
+    public PullRequest copy() {
+        PullRequest copy = new PullRequest();
+        copy.id = id;
+        copy.number = number;
+        copy.body = body;
+        copy.url = url;
+        copy.title = title;
+        copy.createdAt = createdAt;
+        copy.merged = merged;
+        copy.mergedAt = mergedAt;
+        copy.milestone = milestone;
+        copy.author = author;
+        copy.commits = commits;
+        copy.linkedIssues = linkedIssues;
+        copy.labels = labels;
+        copy.headRefName = headRefName;
+        copy.baseRefName = baseRefName;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -94,10 +112,4 @@ public class PullRequest implements Comparable<PullRequest> {
         }
     }
 
-    public static PullRequest fromString(String numberStr) throws IOException {
-        int number = Integer.parseInt(numberStr);
-        final GitHubService service = CDI.current().select(GitHubService.class).get();
-        return service.getPullRequest(number);
-    }
-
 }
\ No newline at end of file
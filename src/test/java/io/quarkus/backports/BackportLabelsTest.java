@@ -0,0 +1,44 @@
+package io.quarkus.backports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.Repository;
+
+class BackportLabelsTest {
+
+    private final GitHubService gitHub = new GitHubService(null, Repository.fromString("quarkusio/quarkus"),
+            "triage/backport?", List.of("3.20:triage/backport-3.20", "3.27:triage/backport-3.27", "3.2:triage/backport-3.20"),
+            50, Duration.ofHours(1));
+
+    @Test
+    void backportLabelOfMilestone() {
+        assertThat(gitHub.getBackportLabel(new Milestone("1", "3.20.4", "3.20"))).isEqualTo("triage/backport-3.20");
+        assertThat(gitHub.getBackportLabel(new Milestone("2", "3.27.1", "3.27"))).isEqualTo("triage/backport-3.27");
+        assertThat(gitHub.getBackportLabel(new Milestone("3", "3.28.2", "3.28"))).isEqualTo("triage/backport?");
+    }
+
+    @Test
+    void branchesByBackportLabel() {
+        assertThat(gitHub.getBranchesByBackportLabel()).containsExactly(
+                Map.entry("triage/backport?", List.of()),
+                Map.entry("triage/backport-3.20", List.of("3.20", "3.2")),
+                Map.entry("triage/backport-3.27", List.of("3.27")));
+        assertThat(gitHub.isBackportLabel("triage/backport-3.27")).isTrue();
+        assertThat(gitHub.isBackportLabel("triage/backport-3.15")).isFalse();
+        assertThat(gitHub.isBackportLabel(null)).isFalse();
+    }
+
+    @Test
+    void invalidBranchLabels() {
+        assertThatIllegalArgumentException().isThrownBy(() -> GitHubService.parseBranchLabels(List.of("triage/backport")));
+        assertThatIllegalArgumentException().isThrownBy(() -> GitHubService.parseBranchLabels(List.of("3.20:")));
+    }
+}
@@ -0,0 +1,520 @@
+package io.quarkus.backports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.quarkus.backports.graphql.GitHubGraphQL;
+import io.quarkus.backports.graphql.GitHubStubServer;
+import io.quarkus.backports.graphql.GitHubStubServer.Reply;
+import io.quarkus.backports.graphql.Priority;
+import io.quarkus.backports.graphql.RateLimitBudget;
+import io.quarkus.backports.graphql.RateLimitExceededException;
+import io.quarkus.backports.model.Issue;
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.PullRequest;
+import io.quarkus.backports.model.Repository;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Runs the queries of {@link GitHubService} against the stub server.
+ */
+@QuarkusTest
+@WithTestResource(GitHubStubServer.class)
+class GitHubServiceQueriesTest {
+
+    private static final String BACKPORT_LABEL = "triage/backport?";
+
+    private static final Milestone MILESTONE = new Milestone("milestone-id", "3.20.1", "3.20");
+
+    private static final Pattern ISSUE_ALIAS = Pattern.compile("_(\\d+): issue");
+
+    private static final Pattern UPDATED_SINCE = Pattern.compile("updated:>=(\\S+)");
+
+    @Inject
+    GitHubGraphQL graphQL;
+
+    @Inject
+    RateLimitBudget rateLimitBudget;
+
+    private GitHubService gitHub;
+
+    @BeforeEach
+    void createService() {
+        gitHub = new GitHubService(graphQL, Repository.fromString("quarkusio/quarkus"), BACKPORT_LABEL, List.of(), 50,
+                Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void resetStubServer() {
+        GitHubStubServer.reset();
+        // a budget window that is over doesn't restrict anything
+        rateLimitBudget.update(Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "0")::get);
+    }
+
+    @Test
+    void rejectsBackgroundQueriesBelowTheReserve() {
+        GitHubStubServer.rateLimitRemaining(800);
+        GitHubStubServer.respondWith(request -> Reply.data(search(null)));
+        // the first response tells us about the budget
+        gitHub.getOpenPullRequestsTargetingBranch(MILESTONE, Priority.INTERACTIVE).await().indefinitely();
+        int requests = GitHubStubServer.requests();
+
+        assertThatThrownBy(() -> gitHub.getOpenPullRequestsTargetingBranch(MILESTONE, Priority.BACKGROUND)
+                .await().indefinitely())
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThat(GitHubStubServer.requests()).isEqualTo(requests);
+        // the users still get their pages
+        assertThat(gitHub.getOpenPullRequestsTargetingBranch(MILESTONE, Priority.INTERACTIVE).await().indefinitely())
+                .isEmpty();
+        assertThat(GitHubStubServer.requests()).isEqualTo(requests + 1);
+    }
+
+    @Test
+    void marksPullRequestAndLinkedIssuesAsBackportedInOneMutation() throws IOException {
+        GitHubStubServer.respondWith(markAsBackportedHandler(MILESTONE.title(), Reply.data(new JsonObject()
+                .put("pullRequestMilestone", new JsonObject())
+                .put("pullRequestLabel", new JsonObject())
+                .put("pullRequestItem", projectItem("PR_ITEM"))
+                .put("issue0Milestone", new JsonObject())
+                .put("issue0Label", new JsonObject())
+                .put("issue0Item", projectItem("ISSUE_ITEM")))));
+        gitHub.fetchBackportLabelIds();
+
+        gitHub.markPullRequestAsBackported(backportCandidate(), MILESTONE);
+
+        List<JsonObject> mutations = GitHubStubServer.receivedRequests("MarkPullRequestAsBackported");
+        assertThat(mutations).hasSize(1);
+        JsonObject variables = mutations.get(0).getJsonObject("variables");
+        assertThat(variables.getString("pullRequestId")).isEqualTo("PR_1");
+        assertThat(variables.getString("milestoneId")).isEqualTo(MILESTONE.id());
+        assertThat(variables.getJsonArray("labelIds")).containsExactly("LABEL_ID");
+        assertThat(variables.getString("projectId")).isEqualTo("PROJECT_ID");
+        assertThat(variables.getString("issue0")).isEqualTo("ISSUE_2");
+
+        List<JsonObject> moves = GitHubStubServer.receivedRequests("UpdateProjectV2ItemsFieldValue");
+        assertThat(moves).hasSize(1);
+        assertThat(moves.get(0).getJsonObject("variables").getString("optionId")).isEqualTo("OPTION_ID");
+        assertThat(moves.get(0).getJsonObject("variables").getString("item0")).isEqualTo("PR_ITEM");
+        assertThat(moves.get(0).getJsonObject("variables").getString("item1")).isEqualTo("ISSUE_ITEM");
+
+        PullRequest backported = gitHub.getPullRequest(1);
+        assertThat(backported.milestone).isEqualTo(MILESTONE);
+        assertThat(backported.labels).isEmpty();
+    }
+
+    @Test
+    void reportsTheErrorsOfEachAlias() throws IOException {
+        JsonObject response = new JsonObject()
+                .put("data", new JsonObject()
+                        .put("pullRequestMilestone", new JsonObject())
+                        .put("pullRequestLabel", (Object) null)
+                        .put("pullRequestItem", projectItem("PR_ITEM"))
+                        .put("issue0Milestone", (Object) null)
+                        .put("issue0Label", new JsonObject())
+                        .put("issue0Item", projectItem("ISSUE_ITEM")))
+                .put("errors", new JsonArray()
+                        .add(error("FORBIDDEN", "Not allowed to remove the label", "pullRequestLabel"))
+                        .add(error("NOT_FOUND", "Could not resolve the milestone", "issue0Milestone")));
+        GitHubStubServer.respondWith(markAsBackportedHandler(MILESTONE.title(), Reply.ok(response.encode())));
+        gitHub.fetchBackportLabelIds();
+
+        assertThatThrownBy(() -> gitHub.markPullRequestAsBackported(backportCandidate(), MILESTONE))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("pull request #1 (pullRequestLabel)=[Not allowed to remove the label]")
+                .hasMessageContaining("issue #2 (issue0Milestone)=[Could not resolve the milestone]");
+
+        // only what has been changed on GitHub is applied
+        PullRequest pullRequest = gitHub.getPullRequest(1);
+        assertThat(pullRequest.milestone).isEqualTo(MILESTONE);
+        assertThat(pullRequest.labels).containsExactly(BACKPORT_LABEL);
+        // the project items are moved anyway
+        assertThat(GitHubStubServer.receivedRequests("UpdateProjectV2ItemsFieldValue")).hasSize(1);
+    }
+
+    @Test
+    void failsWhenTheMutationIsRejected() throws IOException {
+        JsonObject response = new JsonObject()
+                .put("errors", new JsonArray().add(new JsonObject().put("message", "Parse error")));
+        GitHubStubServer.respondWith(markAsBackportedHandler(MILESTONE.title(), Reply.ok(response.encode())));
+        gitHub.fetchBackportLabelIds();
+
+        assertThatThrownBy(() -> gitHub.markPullRequestAsBackported(backportCandidate(), MILESTONE))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Parse error");
+        assertThat(GitHubStubServer.receivedRequests("UpdateProjectV2ItemsFieldValue")).isEmpty();
+    }
+
+    @Test
+    void doesNotRemoveDeletedBackportLabels() throws IOException {
+        GitHubStubServer.respondWith(markAsBackportedHandler(MILESTONE.title(), Reply.data(new JsonObject()
+                .put("pullRequestMilestone", new JsonObject())
+                .put("pullRequestItem", projectItem("PR_ITEM"))
+                .put("issue0Milestone", new JsonObject())
+                .put("issue0Item", projectItem("ISSUE_ITEM")))));
+        gitHub.fetchBackportLabelIds();
+        gitHub.onBackportLabelDeleted(BACKPORT_LABEL);
+
+        gitHub.markPullRequestAsBackported(backportCandidate(), MILESTONE);
+
+        JsonObject mutation = GitHubStubServer.receivedRequests("MarkPullRequestAsBackported").get(0);
+        assertThat(mutation.getString("query")).doesNotContain("removeLabelsFromLabelable");
+        assertThat(mutation.getJsonObject("variables").containsKey("labelIds")).isFalse();
+        assertThat(gitHub.getPullRequest(1).milestone).isEqualTo(MILESTONE);
+    }
+
+    @Test
+    void marksPullRequestAsBackportedWithoutProjectColumn() throws IOException {
+        GitHubStubServer.respondWith(markAsBackportedHandler("3.20.0", Reply.data(new JsonObject()
+                .put("pullRequestMilestone", new JsonObject())
+                .put("pullRequestLabel", new JsonObject())
+                .put("issue0Milestone", new JsonObject())
+                .put("issue0Label", new JsonObject()))));
+        gitHub.fetchBackportLabelIds();
+
+        gitHub.markPullRequestAsBackported(backportCandidate(), MILESTONE);
+
+        JsonObject mutation = GitHubStubServer.receivedRequests("MarkPullRequestAsBackported").get(0);
+        assertThat(mutation.getString("query")).doesNotContain("addProjectV2ItemById");
+        assertThat(mutation.getJsonObject("variables").containsKey("projectId")).isFalse();
+        assertThat(GitHubStubServer.receivedRequests("UpdateProjectV2ItemsFieldValue")).isEmpty();
+        assertThat(gitHub.getPullRequest(1).labels).isEmpty();
+    }
+
+    @Test
+    void followsTheCursorsOfTheSearchAndOfTheNestedConnections() {
+        JsonObject firstPullRequest = pullRequest(1, BACKPORT_LABEL)
+                .put("commits", connection("COMMITS_CURSOR", commit("a1", 1)))
+                .put("timelineItems", connection("TIMELINE_CURSOR", connectedEvent(100)));
+        GitHubStubServer.respondWith(request -> {
+            JsonObject variables = request.getJsonObject("variables");
+            return switch (GitHubStubServer.operationName(request)) {
+                case "ListPullRequestsToBackport" -> variables.getString("after") == null
+                        ? Reply.data(search("SEARCH_CURSOR", firstPullRequest))
+                        : Reply.data(search(null, pullRequest(2, BACKPORT_LABEL)));
+                case "ListPullRequestCommits" -> Reply.data(nextPage(PullRequestDecoder.COMMITS,
+                        connection(null, commit("a2", 2))));
+                case "ListPullRequestTimelineItems" -> Reply.data(nextPage(PullRequestDecoder.TIMELINE_ITEMS,
+                        connection(null, connectedEvent(101))));
+                default -> Reply.data(new JsonObject());
+            };
+        });
+
+        Collection<PullRequest> pullRequests = gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE)
+                .await().indefinitely();
+
+        assertThat(pullRequests).extracting(pullRequest -> pullRequest.number).containsExactly(1, 2);
+        PullRequest pullRequest = pullRequests.iterator().next();
+        assertThat(pullRequest.commits).extracting(commit -> commit.oid).containsExactly("a1", "a2");
+        assertThat(pullRequest.linkedIssues).extracting(issue -> issue.number).containsExactly(100, 101);
+
+        // the nested connections are completed before the next page of the search is requested
+        List<JsonObject> requests = GitHubStubServer.receivedRequests();
+        assertThat(requests).extracting(GitHubStubServer::operationName).containsExactly(
+                "ListPullRequestsToBackport", "ListPullRequestCommits", "ListPullRequestTimelineItems",
+                "ListPullRequestsToBackport");
+        assertThat(requests).extracting(request -> request.getJsonObject("variables").getString("after"))
+                .containsExactly(null, "COMMITS_CURSOR", "TIMELINE_CURSOR", "SEARCH_CURSOR");
+        assertThat(requests.get(1).getJsonObject("variables").getInteger("number")).isEqualTo(1);
+        assertThat(requests.get(2).getJsonObject("variables").getInteger("number")).isEqualTo(1);
+    }
+
+    @Test
+    void onlySyncsTheChangedPullRequestsBetweenFullSyncs() {
+        GitHubStubServer.respondWith(syncHandler(List.of(pullRequest(1, BACKPORT_LABEL), pullRequest(2, BACKPORT_LABEL),
+                pullRequest(3, BACKPORT_LABEL)), List.of()));
+        Instant firstSyncStartedAt = Instant.now();
+        gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE).await().indefinitely();
+        Instant firstSyncEndedAt = Instant.now();
+
+        GitHubStubServer.reset();
+        // #2 has been updated, #3 lost its backport label and #4 has been labeled since the first sync
+        GitHubStubServer.respondWith(syncHandler(List.of(pullRequest(2, BACKPORT_LABEL).put("title", "Updated"),
+                pullRequest(4, BACKPORT_LABEL)), List.of(3)));
+        Collection<PullRequest> pullRequests = gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE)
+                .await().indefinitely();
+
+        assertThat(pullRequests).extracting(pullRequest -> pullRequest.number).containsExactly(1, 2, 4);
+        assertThat(pullRequests).filteredOn(pullRequest -> pullRequest.number == 2).singleElement()
+                .satisfies(pullRequest -> assertThat(pullRequest.title).isEqualTo("Updated"));
+
+        List<JsonObject> searches = GitHubStubServer.receivedRequests("ListPullRequestsToBackport");
+        assertThat(searches).hasSize(1);
+        String updatedSince = updatedSince(searches.get(0));
+        // the changes made while the previous sync was running are not missed
+        assertThat(Instant.parse(updatedSince))
+                .isBetween(firstSyncStartedAt.minus(Duration.ofMinutes(5)).minusSeconds(1),
+                        firstSyncEndedAt.minus(Duration.ofMinutes(5)));
+
+        List<JsonObject> removalSearches = GitHubStubServer.receivedRequests("ListPullRequestsNoLongerToBackport");
+        assertThat(removalSearches).hasSize(1);
+        assertThat(removalSearches.get(0).getJsonObject("variables").getString("query"))
+                .contains("-label:" + BACKPORT_LABEL)
+                .endsWith(" updated:>=" + updatedSince);
+    }
+
+    @Test
+    void fullSyncReplacesTheIncrementallySyncedPullRequests() {
+        gitHub = new GitHubService(graphQL, Repository.fromString("quarkusio/quarkus"), BACKPORT_LABEL, List.of(), 50,
+                Duration.ZERO);
+        GitHubStubServer.respondWith(syncHandler(List.of(pullRequest(1, BACKPORT_LABEL), pullRequest(2, BACKPORT_LABEL),
+                pullRequest(3, BACKPORT_LABEL)), List.of()));
+        gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE).await().indefinitely();
+
+        GitHubStubServer.reset();
+        // a removal the incremental sync would have missed, e.g. a deleted label
+        GitHubStubServer.respondWith(syncHandler(List.of(pullRequest(1, BACKPORT_LABEL), pullRequest(4, BACKPORT_LABEL)),
+                List.of()));
+        Collection<PullRequest> pullRequests = gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE)
+                .await().indefinitely();
+
+        assertThat(pullRequests).extracting(pullRequest -> pullRequest.number).containsExactly(1, 4);
+        assertThat(GitHubStubServer.receivedRequests("ListPullRequestsToBackport")).singleElement()
+                .satisfies(search -> assertThat(updatedSince(search)).isNull());
+        assertThat(GitHubStubServer.receivedRequests("ListPullRequestsNoLongerToBackport")).isEmpty();
+    }
+
+    /**
+     * Answers the searches of a sync of the pull requests to backport.
+     *
+     * @param removedNumbers the pull requests that lost their backport label
+     */
+    private static Function<JsonObject, Reply> syncHandler(List<JsonObject> candidates, List<Integer> removedNumbers) {
+        return request -> switch (GitHubStubServer.operationName(request)) {
+            case "ListPullRequestsToBackport" -> Reply.data(search(null, candidates.toArray(JsonObject[]::new)));
+            case "ListPullRequestsNoLongerToBackport" -> Reply.data(search(null, removedNumbers.stream()
+                    .map(number -> new JsonObject().put("number", number))
+                    .toArray(JsonObject[]::new)));
+            default -> Reply.data(new JsonObject());
+        };
+    }
+
+    /**
+     * @return the lower bound of the {@code updated} qualifier of the search, null for a full sync
+     */
+    private static String updatedSince(JsonObject search) {
+        Matcher matcher = UPDATED_SINCE.matcher(search.getJsonObject("variables").getString("query"));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @ParameterizedTest
+    @MethodSource("tooLargeReplies")
+    void splitsTheIssueQueriesThatAreTooLarge(Reply tooLargeReply) {
+        GitHubStubServer.respondWith(findIssuesHandler(tooLargeReply));
+
+        Collection<PullRequest> pullRequests = gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE)
+                .await().indefinitely();
+
+        assertThat(pullRequests).singleElement()
+                .satisfies(pullRequest -> assertThat(pullRequest.linkedIssues).extracting(issue -> issue.number)
+                        .containsExactly(1, 2, 3, 4));
+        assertThat(GitHubStubServer.receivedRequests("FindIssues"))
+                .extracting(GitHubServiceQueriesTest::requestedIssues)
+                .containsExactly(List.of(1, 2, 3, 4), List.of(1, 2), List.of(1), List.of(2), List.of(3, 4), List.of(3),
+                        List.of(4));
+    }
+
+    static Stream<Reply> tooLargeReplies() {
+        return Stream.of(
+                new Reply(502, ""),
+                new Reply(504, ""),
+                Reply.ok(new JsonObject()
+                        .put("data", new JsonObject().putNull("repository"))
+                        .put("errors", new JsonArray().add(error("RESOURCE_LIMITS_EXCEEDED", "Too many resources")))
+                        .encode()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failedReplies")
+    void doesNotSplitTheIssueQueriesThatFailForOtherReasons(Reply failedReply) {
+        GitHubStubServer.respondWith(findIssuesHandler(failedReply));
+
+        assertThatThrownBy(() -> gitHub.getBackportCandidatesPullRequests(Priority.INTERACTIVE).await().indefinitely())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unable to find 4 issues from #1 to #4");
+        assertThat(GitHubStubServer.receivedRequests("FindIssues")).hasSize(1);
+    }
+
+    static Stream<Reply> failedReplies() {
+        return Stream.of(
+                new Reply(401, ""),
+                new Reply(403, ""),
+                Reply.ok(new JsonObject()
+                        .put("data", new JsonObject().putNull("repository"))
+                        .put("errors", new JsonArray().add(error("FORBIDDEN", "Resource not accessible")))
+                        .encode()));
+    }
+
+    /**
+     * Answers a search returning a pull request fixing issues 1 to 4, the issue queries requesting more than one issue
+     * being answered with the given reply.
+     */
+    private static Function<JsonObject, Reply> findIssuesHandler(Reply multipleIssuesReply) {
+        JsonObject pullRequest = pullRequest(10, BACKPORT_LABEL)
+                .put("body", "Fixes #1, fixes #2, fixes #3 and fixes #4");
+        return request -> switch (GitHubStubServer.operationName(request)) {
+            case "ListPullRequestsToBackport" -> Reply.data(search(null, pullRequest));
+            case "FindIssues" -> {
+                List<Integer> issueNumbers = requestedIssues(request);
+                if (issueNumbers.size() > 1) {
+                    yield multipleIssuesReply;
+                }
+                int number = issueNumbers.get(0);
+                yield Reply.data(new JsonObject().put("repository", new JsonObject().put("_" + number, new JsonObject()
+                        .put("id", "ISSUE_" + number)
+                        .put("number", number)
+                        .put("title", "Issue " + number))));
+            }
+            default -> Reply.data(new JsonObject());
+        };
+    }
+
+    /**
+     * @return the response of the query fetching the next page of a connection of pull request
+     */
+    private static JsonObject nextPage(String connection, JsonObject page) {
+        return new JsonObject().put("repository",
+                new JsonObject().put("pullRequest", new JsonObject().put(connection, page)));
+    }
+
+    private static JsonObject commit(String oid, long committedDate) {
+        return new JsonObject()
+                .put("url", "https://github.com/quarkusio/quarkus/pull/1/commits/" + oid)
+                .put("commit", new JsonObject()
+                        .put("oid", oid)
+                        .put("message", "Commit " + oid)
+                        .put("committedDate", Instant.ofEpochSecond(committedDate).toString()));
+    }
+
+    private static JsonObject connectedEvent(int issueNumber) {
+        return new JsonObject().put("subject", new JsonObject()
+                .put("id", "ISSUE_" + issueNumber)
+                .put("number", issueNumber)
+                .put("title", "Issue " + issueNumber));
+    }
+
+    private static List<Integer> requestedIssues(JsonObject request) {
+        List<Integer> issueNumbers = new ArrayList<>();
+        Matcher matcher = ISSUE_ALIAS.matcher(request.getString("query"));
+        while (matcher.find()) {
+            issueNumbers.add(Integer.valueOf(matcher.group(1)));
+        }
+        return issueNumbers;
+    }
+
+    /**
+     * Answers the queries marking a pull request as backported, the project and its status field already exist.
+     *
+     * @param statusOption the only option of the status field
+     */
+    private static Function<JsonObject, Reply> markAsBackportedHandler(String statusOption, Reply mutationReply) {
+        return request -> switch (GitHubStubServer.operationName(request)) {
+            case "FindBackportLabelId" -> Reply.data(new JsonObject().put("repository",
+                    new JsonObject().put("label", new JsonObject().put("id", "LABEL_ID"))));
+            case "GetProjectsV2" -> Reply.data(new JsonObject().put("repository", new JsonObject().put("projectsV2",
+                    connection(null, new JsonObject()
+                            .put("id", "PROJECT_ID")
+                            .put("title", "Backports for " + MILESTONE.minorVersion())
+                            .put("number", 1)))));
+            case "GetProjectV2FieldOptions" -> Reply.data(new JsonObject().put("node", new JsonObject().put("field",
+                    new JsonObject()
+                            .put("id", "STATUS_FIELD_ID")
+                            .put("name", "Status")
+                            .put("dataType", "SINGLE_SELECT")
+                            .put("options", new JsonArray().add(new JsonObject()
+                                    .put("id", "OPTION_ID")
+                                    .put("name", statusOption))))));
+            case "MarkPullRequestAsBackported" -> mutationReply;
+            default -> Reply.data(new JsonObject());
+        };
+    }
+
+    private static JsonObject projectItem(String id) {
+        return new JsonObject().put("item", new JsonObject().put("id", id));
+    }
+
+    private static JsonObject error(String type, String message, Object... path) {
+        return new JsonObject()
+                .put("type", type)
+                .put("message", message)
+                .put("path", new JsonArray(List.of(path)));
+    }
+
+    /**
+     * A pull request to backport with a linked issue.
+     */
+    private static PullRequest backportCandidate() {
+        Issue issue = new Issue();
+        issue.id = "ISSUE_2";
+        issue.number = 2;
+
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.id = "PR_1";
+        pullRequest.number = 1;
+        pullRequest.title = "Pull request 1";
+        pullRequest.merged = true;
+        pullRequest.mergedAt = Instant.ofEpochSecond(1);
+        pullRequest.labels = Set.of(BACKPORT_LABEL);
+        pullRequest.commits = new ArrayList<>();
+        pullRequest.linkedIssues = new TreeSet<>(List.of(issue));
+        return pullRequest;
+    }
+
+    /**
+     * @param endCursor the cursor of the next page, null for the last page
+     */
+    static JsonObject search(String endCursor, JsonObject... pullRequests) {
+        return new JsonObject().put("search", connection(endCursor, pullRequests));
+    }
+
+    static JsonObject connection(String endCursor, JsonObject... nodes) {
+        return new JsonObject()
+                .put("nodes", new JsonArray(List.of((Object[]) nodes)))
+                .put("pageInfo", new JsonObject()
+                        .put("hasNextPage", endCursor != null)
+                        .put("endCursor", endCursor));
+    }
+
+    static JsonObject pullRequest(int number, String... labels) {
+        JsonArray labelNodes = new JsonArray();
+        for (String label : labels) {
+            labelNodes.add(new JsonObject().put("name", label));
+        }
+        return new JsonObject()
+                .put("id", "PR_" + number)
+                .put("number", number)
+                .put("title", "Pull request " + number)
+                .put("body", "")
+                .put("merged", true)
+                .put("mergedAt", Instant.ofEpochSecond(number).toString())
+                .put("baseRefName", "main")
+                .put("labels", new JsonObject().put("nodes", labelNodes));
+    }
+}
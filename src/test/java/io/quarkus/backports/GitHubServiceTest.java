@@ -1,12 +1,11 @@
 package io.quarkus.backports;
 
-import java.io.IOException;
-
 import jakarta.inject.Inject;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import io.quarkus.backports.graphql.Priority;
 import io.quarkus.test.junit.QuarkusTest;
 
 @QuarkusTest
@@ -14,11 +13,12 @@ import io.quarkus.test.junit.QuarkusTest;
 class GitHubServiceTest {
 
     @Inject
-    GitHubService gitHub;
+    GitHubServices gitHubServices;
 
     @Test
-    void test() throws IOException {
-        System.out.println(gitHub.getBackportCandidatesPullRequests());
+    void test() {
+        System.out.println(
+                gitHubServices.getDefault().getBackportCandidatesPullRequests(Priority.INTERACTIVE).await().indefinitely());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package io.quarkus.backports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.backports.model.Commit;
+import io.quarkus.backports.model.Milestone;
+import io.quarkus.backports.model.PullRequest;
+import io.quarkus.backports.model.Repository;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+class GitHubWebhooksTest {
+
+    private static final String SECRET = "It's a Secret to Everybody";
+
+    @Test
+    void isSignatureValid() {
+        // example from the GitHub documentation
+        byte[] payload = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(GitHubWebhooks.isSignatureValid(SECRET, payload,
+                "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17")).isTrue();
+        assertThat(GitHubWebhooks.isSignatureValid("another secret", payload,
+                "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17")).isFalse();
+        assertThat(GitHubWebhooks.isSignatureValid(SECRET, payload,
+                "sha256=0000000000000000000000000000000000000000000000000000000000000000")).isFalse();
+        assertThat(GitHubWebhooks.isSignatureValid(SECRET, payload, "sha256=not-hex")).isFalse();
+        assertThat(GitHubWebhooks.isSignatureValid(SECRET, payload, null)).isFalse();
+    }
+
+    @Test
+    void replayPullRequestUnlabeled() throws IOException {
+        byte[] payload = readPayload("pull_request-unlabeled.json");
+        assertThat(GitHubWebhooks.isSignatureValid(SECRET, payload,
+                "sha256=fc6d4b79d980057ef4c4d1411bee0d07780d7b751d8474c0af2d96ff9ced8b88")).isTrue();
+
+        PullRequest cachedPullRequest = new PullRequest();
+        cachedPullRequest.id = "MDExOlB1bGxSZXF1ZXN0NDU3ODkzMTI5";
+        cachedPullRequest.number = 2;
+        cachedPullRequest.title = "Old title";
+        cachedPullRequest.merged = true;
+        cachedPullRequest.mergedAt = Instant.now();
+        cachedPullRequest.labels = Set.of("triage/backport?", "area/core");
+        cachedPullRequest.commits = List.of(new Commit());
+        cachedPullRequest.linkedIssues = Set.of();
+
+        JsonObject event = new JsonObject(Buffer.buffer(payload));
+        PullRequest pullRequest = GitHubWebhooks.updatePullRequest(cachedPullRequest, event.getJsonObject("pull_request"));
+
+        assertThat(pullRequest).isNotSameAs(cachedPullRequest);
+        assertThat(pullRequest.id).isEqualTo(cachedPullRequest.id);
+        assertThat(pullRequest.title).isEqualTo("Update README.md");
+        assertThat(pullRequest.labels).containsExactly("area/core");
+        assertThat(pullRequest.milestone).isEqualTo(new Milestone("MDk6TWlsZXN0b25lNTY1MzgyNg==", "1.6.1.Final", null));
+        assertThat(pullRequest.merged).isTrue();
+        assertThat(pullRequest.mergedAt).hasToString("2020-07-24T17:44:20Z");
+        assertThat(pullRequest.baseRefName).isEqualTo("main");
+        assertThat(pullRequest.headRefName).isEqualTo("patch-1");
+        assertThat(pullRequest.commits).isSameAs(cachedPullRequest.commits);
+        assertThat(pullRequest.linkedIssues).isSameAs(cachedPullRequest.linkedIssues);
+        // the cached pull request is left untouched
+        assertThat(cachedPullRequest.labels).contains("triage/backport?");
+    }
+
+    @Test
+    void ignoreUnknownPullRequestsWithoutBackportLabel() throws IOException {
+        // no GraphQL client: the event must not trigger any query
+        GitHubService gitHub = new GitHubService(null, Repository.fromString("gsmet/backports-test"),
+                "triage/backport?", List.of(), 50, Duration.ofHours(1));
+        JsonObject event = new JsonObject(Buffer.buffer(readPayload("pull_request-unlabeled.json")));
+
+        assertThat(gitHub.onPullRequestEvent("unlabeled", event.getJsonObject("pull_request"), null, false)).isNull();
+    }
+
+    private static byte[] readPayload(String name) throws IOException {
+        try (InputStream is = GitHubWebhooksTest.class.getResourceAsStream("/webhooks/" + name)) {
+            return is.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.quarkus.backports;
+
+import static io.quarkus.backports.graphql.JsonParsers.decodePath;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import io.quarkus.backports.PullRequestDecoder.NextPage;
+import io.quarkus.backports.PullRequestDecoder.Page;
+import io.quarkus.backports.model.PullRequest;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+class PullRequestDecoderTest {
+
+    @Test
+    void decodeRecordedSearch() throws IOException {
+        PullRequestDecoder decoder = new PullRequestDecoder();
+        List<Page<PullRequest>> pages = new ArrayList<>();
+        try (JsonParser parser = DatabindCodec.mapper()
+                .createParser(Files.readAllBytes(Path.of("documentation/graphql/listPullRequests_output.json")))) {
+            parser.nextToken();
+            decodePath(parser, p -> pages.add(decoder.decodeSearch(p)), "data", "search");
+        }
+
+        assertThat(pages).hasSize(1);
+        assertThat(pages.get(0).endCursor()).isNull();
+        assertThat(pages.get(0).nodes()).hasSize(1);
+        assertThat(decoder.pollNextPage()).isNull();
+
+        PullRequest pullRequest = pages.get(0).nodes().get(0);
+        assertThat(pullRequest.id).isEqualTo("MDExOlB1bGxSZXF1ZXN0NDU3ODkzMTI5");
+        assertThat(pullRequest.number).isEqualTo(2);
+        assertThat(pullRequest.title).isEqualTo("Update README.md");
+        assertThat(pullRequest.merged).isTrue();
+        assertThat(pullRequest.createdAt).hasToString("2020-07-24T17:44:11Z");
+        assertThat(pullRequest.mergedAt).hasToString("2020-07-24T17:44:20Z");
+        assertThat(pullRequest.baseRefName).isEqualTo("main");
+        assertThat(pullRequest.labels).containsExactly("triage/backport?");
+        assertThat(pullRequest.milestone.title()).isEqualTo("One");
+        assertThat(pullRequest.author.login).isEqualTo("gastaldi");
+        assertThat(pullRequest.commits).hasSize(1);
+        assertThat(pullRequest.commits.get(0).oid).isEqualTo("010d95abd65dfec445c7641af8c2cc5a74fb919a");
+        assertThat(pullRequest.commits.get(0).url)
+                .isEqualTo("https://github.com/gastaldi/backport-repo/pull/2/commits/010d95abd65dfec445c7641af8c2cc5a74fb919a");
+        assertThat(pullRequest.commits.get(0).committedDate).hasToString("2020-07-24T17:44:02Z");
+        assertThat(pullRequest.linkedIssues).extracting(issue -> issue.number).containsExactly(1);
+    }
+
+    @Test
+    void queueIncompleteConnections() throws IOException {
+        String json = """
+                {
+                  "number": 42,
+                  "commits": {
+                    "nodes": [],
+                    "pageInfo": { "hasNextPage": true, "endCursor": "commits-2" }
+                  },
+                  "timelineItems": {
+                    "nodes": [
+                      { "subject": { "id": "I_1", "number": 1 } },
+                      { "subject": { "id": "I_2", "number": 2 } },
+                      { "subject": { "id": "I_1", "number": 1 } }
+                    ],
+                    "pageInfo": { "hasNextPage": true, "endCursor": "timeline-2" }
+                  }
+                }
+                """;
+        PullRequestDecoder decoder = new PullRequestDecoder();
+        PullRequest pullRequest;
+        try (JsonParser parser = DatabindCodec.mapper().createParser(json)) {
+            parser.nextToken();
+            pullRequest = decoder.decodePullRequest(parser);
+        }
+
+        // connected then disconnected
+        assertThat(pullRequest.linkedIssues).extracting(issue -> issue.number).containsExactly(2);
+        assertThat(decoder.pollNextPage()).isEqualTo(new NextPage(pullRequest, PullRequestDecoder.COMMITS, "commits-2"));
+        NextPage timelineItems = decoder.pollNextPage();
+        assertThat(timelineItems).isEqualTo(new NextPage(pullRequest, PullRequestDecoder.TIMELINE_ITEMS, "timeline-2"));
+        assertThat(decoder.pollNextPage()).isNull();
+
+        // the disconnection of issue #2 comes with the next page
+        try (JsonParser parser = DatabindCodec.mapper().createParser("""
+                {
+                  "nodes": [ { "subject": { "id": "I_2", "number": 2 } } ],
+                  "pageInfo": { "hasNextPage": false, "endCursor": "timeline-3" }
+                }
+                """)) {
+            parser.nextToken();
+            decoder.decodeConnection(pullRequest, timelineItems.connection(), parser);
+        }
+        assertThat(pullRequest.linkedIssues).isEmpty();
+        assertThat(decoder.pollNextPage()).isNull();
+    }
+}
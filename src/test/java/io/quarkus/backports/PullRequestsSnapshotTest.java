@@ -0,0 +1,72 @@
+package io.quarkus.backports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.backports.model.PullRequest;
+
+class PullRequestsSnapshotTest {
+
+    private static final Predicate<PullRequest> IS_BACKPORT_CANDIDATE = pullRequest -> pullRequest.labels
+            .contains("triage/backport?");
+
+    @Test
+    void changesCreateNewGenerations() {
+        PullRequestsSnapshot snapshot = PullRequestsSnapshot.EMPTY
+                .withChanged(List.of(pullRequest(1, "triage/backport?")), IS_BACKPORT_CANDIDATE);
+
+        PullRequestsSnapshot next = snapshot.withChanged(List.of(pullRequest(1)), IS_BACKPORT_CANDIDATE);
+
+        assertThat(next.version()).isGreaterThan(snapshot.version());
+        assertThat(snapshot.backportCandidates()).extracting(pullRequest -> pullRequest.number).containsExactly(1);
+        assertThat(next.backportCandidates()).isEmpty();
+        assertThat(next.get(1).labels).isEmpty();
+    }
+
+    @Test
+    void queriesDoNotOverrideMoreRecentChanges() {
+        PullRequestsSnapshot snapshot = PullRequestsSnapshot.EMPTY
+                .withChanged(List.of(pullRequest(1, "triage/backport?")), IS_BACKPORT_CANDIDATE);
+        long fetchedAt = snapshot.version();
+
+        // the pull request is marked as backported while the search is running
+        snapshot = snapshot.withChanged(List.of(pullRequest(1)), IS_BACKPORT_CANDIDATE);
+        snapshot = snapshot.withBackportCandidatesChanges(
+                List.of(pullRequest(1, "triage/backport?"), pullRequest(2, "triage/backport?")), Set.of(), fetchedAt);
+
+        assertThat(snapshot.get(1).labels).isEmpty();
+        assertThat(snapshot.backportCandidates()).extracting(pullRequest -> pullRequest.number).containsExactly(2);
+    }
+
+    @Test
+    void fullSyncDropsThePullRequestsThatAreNotCandidatesAnymore() {
+        PullRequestsSnapshot snapshot = PullRequestsSnapshot.EMPTY
+                .withFetched(List.of(pullRequest(1), pullRequest(2, "triage/backport?")), 0);
+        long fetchedAt = snapshot.version();
+        snapshot = snapshot.withChanged(List.of(pullRequest(3, "triage/backport?")), IS_BACKPORT_CANDIDATE);
+
+        snapshot = snapshot.withBackportCandidates(List.of(pullRequest(4, "triage/backport?")), fetchedAt,
+                IS_BACKPORT_CANDIDATE);
+
+        assertThat(snapshot.get(1)).isNull();
+        assertThat(snapshot.get(2)).isNull();
+        assertThat(snapshot.pullRequests()).extracting(pullRequest -> pullRequest.number).containsExactlyInAnyOrder(3, 4);
+        assertThat(snapshot.backportCandidates()).extracting(pullRequest -> pullRequest.number)
+                .containsExactlyInAnyOrder(3, 4);
+    }
+
+    private static PullRequest pullRequest(int number, String... labels) {
+        PullRequest pullRequest = new PullRequest();
+        pullRequest.number = number;
+        pullRequest.merged = true;
+        pullRequest.mergedAt = Instant.ofEpochSecond(number);
+        pullRequest.labels = Set.of(labels);
+        return pullRequest;
+    }
+}
@@ -0,0 +1,194 @@
+package io.quarkus.backports.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+@QuarkusTest
+@WithTestResource(GitHubStubServer.class)
+class GitHubGraphQLTest {
+
+    private static final GraphQLOperation VIEWER = GraphQLOperation.of("viewer", "query Viewer { viewer { login } }");
+
+    private static final GraphQLOperation FOLLOW = GraphQLOperation.of("follow",
+            "mutation Follow($id: ID!) { followUser(input: { userId: $id }) { clientMutationId } }");
+
+    private static final int CONCURRENT_QUERIES = 5;
+
+    @Inject
+    GitHubGraphQL graphQL;
+
+    @Inject
+    RateLimitBudget rateLimitBudget;
+
+    @Inject
+    MeterRegistry registry;
+
+    @AfterEach
+    void resetBudget() {
+        GitHubStubServer.rateLimitRemaining(5000);
+        GitHubStubServer.responseDelay(Duration.ZERO);
+        // a budget window that is over doesn't restrict anything
+        rateLimitBudget.update(Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "0")::get);
+    }
+
+    @Test
+    void tracksBudget() {
+        GitHubStubServer.rateLimitRemaining(4990);
+
+        JsonObject response = graphQL.graphql(VIEWER, new JsonObject());
+
+        assertThat(response.getJsonObject("data").getJsonObject("viewer").getString("login")).isEqualTo("stub");
+        assertThat(rateLimitBudget.getLimit()).isEqualTo(5000);
+        assertThat(rateLimitBudget.getRemaining()).isEqualTo(4990);
+        assertThat(rateLimitBudget.allows(Priority.BACKGROUND)).isTrue();
+    }
+
+    @Test
+    void executesQueriesWithoutBlocking() {
+        GitHubStubServer.responseDelay(Duration.ofMillis(200));
+
+        Uni<JsonObject> response = graphQL.graphqlAsync(VIEWER, new JsonObject());
+
+        assertThat(response.await().atMost(Duration.ofSeconds(5)).getJsonObject("data").getJsonObject("viewer")
+                .getString("login")).isEqualTo("stub");
+    }
+
+    @Test
+    void defersBackgroundQueriesWhenBudgetIsLow() {
+        GitHubStubServer.rateLimitRemaining(200);
+        graphQL.graphql(VIEWER, new JsonObject());
+
+        assertThat(rateLimitBudget.allows(Priority.BACKGROUND)).isFalse();
+        assertThat(rateLimitBudget.allows(Priority.INTERACTIVE)).isTrue();
+        assertThatThrownBy(() -> graphQL.graphql(VIEWER, new JsonObject(), Priority.BACKGROUND))
+                .isInstanceOf(RateLimitExceededException.class);
+        // interactive queries are slowed down but still go through
+        assertThat(graphQL.graphql(VIEWER, new JsonObject())).isNotNull();
+    }
+
+    @Test
+    void rejectsQueriesWhenBudgetIsExhausted() {
+        GitHubStubServer.rateLimitRemaining(0);
+        graphQL.graphql(VIEWER, new JsonObject());
+
+        assertThatThrownBy(() -> graphQL.graphql(VIEWER, new JsonObject()))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void recordsMetricsPerOperation() {
+        graphQL.graphql(VIEWER, new JsonObject());
+
+        Timer timer = registry.find("github.graphql.requests").tags("operation", "viewer", "outcome", "SUCCESS").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+        DistributionSummary requestSize = registry.find("github.graphql.request.size").tag("operation", "viewer").summary();
+        assertThat(requestSize.max()).isEqualTo(VIEWER.request(new JsonObject()).toBuffer().length());
+        DistributionSummary responseSize = registry.find("github.graphql.response.size").tag("operation", "viewer")
+                .summary();
+        assertThat(responseSize.max()).isEqualTo(GitHubStubServer.RESPONSE.length());
+        DistributionSummary cost = registry.find("github.graphql.cost").tag("operation", "viewer").summary();
+        assertThat(cost.max()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescesIdenticalQueries() throws Exception {
+        GitHubStubServer.responseDelay(Duration.ofMillis(500));
+        int requests = GitHubStubServer.requests();
+        double coalesced = coalesced("viewer");
+
+        List<JsonObject> responses = sendConcurrently(() -> graphQL.graphql(VIEWER, new JsonObject()));
+
+        int sent = GitHubStubServer.requests() - requests;
+        assertThat(sent).isLessThan(CONCURRENT_QUERIES);
+        assertThat(coalesced("viewer") - coalesced).isEqualTo(CONCURRENT_QUERIES - sent);
+        // each query gets its own copy of the response
+        assertThat(responses).allSatisfy(
+                response -> assertThat(response.getJsonObject("data").getJsonObject("viewer").getString("login"))
+                        .isEqualTo("stub"));
+        assertThat(responses.get(0)).isNotSameAs(responses.get(1));
+    }
+
+    @Test
+    void neverCoalescesMutations() throws Exception {
+        GitHubStubServer.responseDelay(Duration.ofMillis(200));
+        int requests = GitHubStubServer.requests();
+
+        sendConcurrently(() -> graphQL.graphql(FOLLOW, new JsonObject().put("id", "U_1")));
+
+        assertThat(GitHubStubServer.requests() - requests).isEqualTo(CONCURRENT_QUERIES);
+    }
+
+    @Test
+    void streamsDataFields() {
+        List<String> fields = new ArrayList<>();
+        String[] login = new String[1];
+
+        JsonArray errors = graphQL.graphql(VIEWER, new JsonObject(), (field, parser) -> {
+            fields.add(field);
+            JsonParsers.decodeObject(parser, (name, p) -> login[0] = p.getValueAsString());
+        });
+
+        assertThat(errors).isNull();
+        // rateLimit is consumed by GitHubGraphQL
+        assertThat(fields).containsExactly("viewer");
+        assertThat(login[0]).isEqualTo("stub");
+    }
+
+    private double coalesced(String operation) {
+        Counter counter = registry.find("github.graphql.coalesced").tag("operation", operation).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static List<JsonObject> sendConcurrently(Supplier<JsonObject> query) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_QUERIES);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<JsonObject>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_QUERIES; i++) {
+                responses.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return query.get();
+                }, executor));
+            }
+            start.countDown();
+
+            List<JsonObject> results = new ArrayList<>();
+            for (CompletableFuture<JsonObject> response : responses) {
+                results.add(response.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
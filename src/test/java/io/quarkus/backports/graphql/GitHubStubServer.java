@@ -0,0 +1,194 @@
+package io.quarkus.backports.graphql;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A local stand-in for the GitHub GraphQL API returning rate limit headers.
+ * <p>
+ * It answers a viewer query by default, the tests define the responses of their queries with
+ * {@link #respondWith(Function)}.
+ */
+public class GitHubStubServer implements QuarkusTestResourceLifecycleManager {
+
+    private static final long LIMIT = 5000;
+
+    static final String RESPONSE = "{\"data\":{\"rateLimit\":{\"cost\":1},\"viewer\":{\"login\":\"stub\"}}}";
+
+    private static final Function<JsonObject, Reply> DEFAULT_HANDLER = request -> Reply.ok(RESPONSE);
+
+    private static final Pattern OPERATION_NAME = Pattern.compile("^(?:query|mutation) (\\w+)");
+
+    private static volatile long remaining = LIMIT;
+
+    private static volatile Duration responseDelay = Duration.ZERO;
+
+    private static final AtomicInteger requests = new AtomicInteger();
+
+    private static final List<JsonObject> receivedRequests = new CopyOnWriteArrayList<>();
+
+    private static volatile Function<JsonObject, Reply> handler = DEFAULT_HANDLER;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /**
+     * Defines the remaining points returned by the next responses.
+     */
+    public static void rateLimitRemaining(long remaining) {
+        GitHubStubServer.remaining = remaining;
+    }
+
+    /**
+     * Defines how long the next requests wait before being answered.
+     */
+    public static void responseDelay(Duration responseDelay) {
+        GitHubStubServer.responseDelay = responseDelay;
+    }
+
+    /**
+     * @return the number of requests received so far
+     */
+    public static int requests() {
+        return requests.get();
+    }
+
+    /**
+     * Defines the responses of the next requests, the handler is given the request body.
+     */
+    public static void respondWith(Function<JsonObject, Reply> handler) {
+        GitHubStubServer.handler = handler;
+    }
+
+    /**
+     * @return the bodies of the requests received since the last {@link #reset()}
+     */
+    public static List<JsonObject> receivedRequests() {
+        return List.copyOf(receivedRequests);
+    }
+
+    /**
+     * @return the bodies of the requests received since the last {@link #reset()} for this operation
+     */
+    public static List<JsonObject> receivedRequests(String operationName) {
+        return receivedRequests.stream()
+                .filter(request -> operationName.equals(operationName(request)))
+                .toList();
+    }
+
+    /**
+     * @return the name of the operation of the request, e.g. {@code ListPullRequestsToBackport}
+     */
+    public static String operationName(JsonObject request) {
+        Matcher matcher = OPERATION_NAME.matcher(request.getString("query", ""));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Restores the default responses and forgets the requests received so far.
+     */
+    public static void reset() {
+        remaining = LIMIT;
+        responseDelay = Duration.ZERO;
+        handler = DEFAULT_HANDLER;
+        receivedRequests.clear();
+    }
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start the GitHub stub server", e);
+        }
+        server.createContext("/graphql", GitHubStubServer::handle);
+        // concurrent requests are answered concurrently
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+
+        return Map.of(
+                "quarkus.rest-client.\"io.quarkus.backports.graphql.GraphQLClient\".url",
+                "http://localhost:" + server.getAddress().getPort() + "/graphql",
+                "backports.token", "stub-token",
+                "backports.rate-limit.max-delay", "10ms");
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        JsonObject request = new JsonObject(Buffer.buffer(exchange.getRequestBody().readAllBytes()));
+        requests.incrementAndGet();
+        receivedRequests.add(request);
+        try {
+            Thread.sleep(responseDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Reply reply;
+        try {
+            reply = handler.apply(request);
+        } catch (RuntimeException e) {
+            reply = new Reply(500, e.toString());
+        }
+
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(LIMIT));
+        exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining));
+        exchange.getResponseHeaders().add("X-RateLimit-Used", String.valueOf(LIMIT - remaining));
+        exchange.getResponseHeaders().add("X-RateLimit-Reset",
+                String.valueOf(Instant.now().plusSeconds(3600).getEpochSecond()));
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * A response of the stub server.
+     */
+    public record Reply(int status, String body) {
+
+        public static Reply ok(String body) {
+            return new Reply(200, body);
+        }
+
+        /**
+         * @return a response with these {@code data} fields, the cost of the query being added
+         */
+        public static Reply data(JsonObject data) {
+            return ok(new JsonObject().put("data", data.copy().put("rateLimit", new JsonObject().put("cost", 1))).encode());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.quarkus.backports.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.quarkus.qute.Engine;
+import io.quarkus.qute.Template;
+import io.vertx.core.json.JsonObject;
+
+class GraphQLOperationTest {
+
+    private static final Path TEMPLATES = Path.of("src/main/resources/templates/GitHubService");
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$(\\w+)");
+
+    private static final Pattern OPERATION_NAME = Pattern.compile("^(query|mutation) [A-Z]\\w*");
+
+    @Test
+    void minify() {
+        assertThat(GraphQLOperation.minify("""
+                query X($a: Int, $b: String) {
+                  # a comment
+                  foo(a: $a, b: "x  # y") {
+                    ... on Bar { id }
+                  }
+                }
+                """)).isEqualTo("query X($a:Int $b:String){foo(a:$a b:\"x  # y\"){...on Bar{id}}}");
+    }
+
+    @Test
+    void checkVariables() {
+        GraphQLOperation operation = GraphQLOperation.of("getPullRequest", """
+                query GetPullRequest($owner: String!, $name: String!, $number: Int!, $after: String) {
+                  repository(owner: $owner, name: $name) {
+                    pullRequest(number: $number) { commits(after: $after) { totalCount } }
+                  }
+                }
+                """);
+
+        assertThat(operation.variables()).isEqualTo(Map.of("owner", true, "name", true, "number", true, "after", false));
+        JsonObject variables = new JsonObject().put("owner", "quarkusio").put("name", "quarkus").put("number", 1);
+        assertThat(operation.request(variables).getJsonObject("variables")).isEqualTo(variables);
+        assertThatThrownBy(() -> operation.request(new JsonObject().put("owner", "quarkusio").put("name", "quarkus")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("$number");
+        assertThatThrownBy(() -> operation.request(variables.copy().put("repo", "quarkus")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("$repo");
+    }
+
+    @Test
+    void isMutation() {
+        assertThat(GraphQLOperation.of("viewer", "query Viewer { viewer { login } }").isMutation()).isFalse();
+        assertThat(GraphQLOperation.of("addStar", """
+                # stars the repository
+                mutation AddStar($id: ID!) {
+                  addStar(input: { starrableId: $id }) { clientMutationId }
+                }
+                """).isMutation()).isTrue();
+    }
+
+    /**
+     * Renders all the templates the way they are rendered at runtime and checks the resulting documents.
+     */
+    @ParameterizedTest
+    @MethodSource("templates")
+    void validateTemplate(Path path) throws IOException {
+        Template template = Engine.builder().addDefaults().build()
+                .parse(Files.readString(path), null, "GitHubService/" + path.getFileName());
+        String fileName = path.getFileName().toString();
+
+        GraphQLOperation operation;
+        if (template.getExpressions().isEmpty()) {
+            operation = GraphQLOperation.compile(template.instance());
+        } else {
+            // the data of the operations with a dynamic shape
+            operation = GraphQLOperation.render(template
+                    .data("issues", List.of(1, 2))
+                    .data("issueIds", List.of("I_1", "I_2"))
+                    .data("removeLabel", true)
+                    .data("addToProject", true)
+                    .data("itemIds", List.of("PVTI_1", "PVTI_2")));
+        }
+
+        assertThat(operation.name()).isEqualTo(fileName.substring(0, fileName.indexOf('.')));
+        String document = operation.document();
+        assertThat(document).as("operations are named so that they are easy to spot").containsPattern(OPERATION_NAME);
+        assertBalanced(document);
+
+        int selectionSet = document.indexOf('{');
+        Set<String> usedVariables = new HashSet<>();
+        Matcher matcher = VARIABLE.matcher(document.substring(selectionSet));
+        while (matcher.find()) {
+            usedVariables.add(matcher.group(1));
+        }
+        assertThat(usedVariables).as("variables used by " + fileName)
+                .containsExactlyInAnyOrderElementsOf(operation.variables().keySet());
+    }
+
+    static Stream<Path> templates() throws IOException {
+        return Files.list(TEMPLATES).filter(path -> path.toString().endsWith(".graphql")).sorted().toList().stream();
+    }
+
+    private static void assertBalanced(String document) {
+        Deque<Character> opened = new ArrayDeque<>();
+        boolean inString = false;
+        for (int i = 0; i < document.length(); i++) {
+            char c = document.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{' -> opened.push('}');
+                case '(' -> opened.push(')');
+                case '[' -> opened.push(']');
+                case '}', ')', ']' -> assertThat(opened.poll()).as("closing %s at %d in %s", c, i, document).isEqualTo(c);
+                default -> {
+                }
+            }
+        }
+        assertThat(opened).as("unclosed in " + document).isEmpty();
+        assertThat(inString).as("unclosed string in " + document).isFalse();
+    }
+}